@@ -0,0 +1,119 @@
+package com.hospital.config;
+
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionAttributeListener;
+import jakarta.servlet.http.HttpSessionBindingEvent;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionIdListener;
+import jakarta.servlet.http.HttpSessionListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sessions held in Tomcat's memory, tracked through the servlet session listeners. Only used when the
+// JDBC session store is switched off; Spring Session sessions never reach these listeners.
+@Component
+public class ContainerSessionStore implements SessionStore, HttpSessionListener, HttpSessionIdListener,
+        HttpSessionAttributeListener {
+
+    private static final String USER_ATTRIBUTE = "loggedInUser";
+
+    private final Map<String, HttpSession> sessions = new ConcurrentHashMap<>();
+    private final Set<String> signedIn = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public int signedInCount() {
+        return signedIn.size();
+    }
+
+    @Override
+    public boolean isSignedIn(HttpSession session) {
+        return signedIn.contains(session.getId());
+    }
+
+    @Override
+    public void signedIn(HttpSession session, String username) {
+        sessions.putIfAbsent(session.getId(), session);
+        signedIn.add(session.getId());
+    }
+
+    @Override
+    public int reap(long idleSinceMillis) {
+        int reaped = 0;
+        for (Map.Entry<String, HttpSession> entry : sessions.entrySet()) {
+            try {
+                if (entry.getValue().getLastAccessedTime() < idleSinceMillis) {
+                    entry.getValue().invalidate();
+                    reaped++;
+                }
+            } catch (IllegalStateException e) {
+                // Already invalidated by the container
+                sessions.remove(entry.getKey());
+                signedIn.remove(entry.getKey());
+            }
+        }
+        return reaped;
+    }
+
+    @Override
+    public long averageSessionBytes() {
+        long total = 0;
+        int measured = 0;
+        for (HttpSession session : sessions.values()) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    for (String name : Collections.list(session.getAttributeNames())) {
+                        out.writeUTF(name);
+                        out.writeObject(session.getAttribute(name));
+                    }
+                }
+                total += bytes.size();
+                measured++;
+            } catch (IOException | IllegalStateException e) {
+                // Invalidated meanwhile, or holding something that cannot be serialized
+            }
+        }
+        return measured > 0 ? total / measured : 0;
+    }
+
+    @Override
+    public void sessionCreated(HttpSessionEvent event) {
+        sessions.put(event.getSession().getId(), event.getSession());
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        sessions.remove(event.getSession().getId());
+        signedIn.remove(event.getSession().getId());
+    }
+
+    // Login rotates the session id; carry the entries over to the new one
+    @Override
+    public void sessionIdChanged(HttpSessionEvent event, String oldSessionId) {
+        HttpSession session = event.getSession();
+        sessions.remove(oldSessionId);
+        sessions.put(session.getId(), session);
+        if (signedIn.remove(oldSessionId)) {
+            signedIn.add(session.getId());
+        }
+    }
+
+    @Override
+    public void attributeRemoved(HttpSessionBindingEvent event) {
+        if (USER_ATTRIBUTE.equals(event.getName())) {
+            signedIn.remove(event.getSession().getId());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.hospital.config;
+
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sessions kept by Spring Session in the SPRING_SESSION tables of the application database. Spring
+// Security's principal index marks a signed-in session; only admissions not yet written are tracked here.
+@Component
+public class JdbcSessionStore implements SessionStore {
+
+    // Far longer than a login request; an entry whose row never appears (request failed) stops counting after this
+    private static final long IN_FLIGHT_MILLIS = 60_000;
+
+    @Autowired
+    private ObjectProvider<JdbcIndexedSessionRepository> sessionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.session.jdbc.table-name:SPRING_SESSION}")
+    private String table;
+
+    // Sessions admitted on this node whose row may not be written yet (flush-mode on-save writes it when the
+    // login request completes, after admission control has released its lock), with the admission time
+    private final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+
+    // False when Spring Session is switched off and Tomcat keeps the sessions
+    public boolean isActive() {
+        return sessionRepository.getIfAvailable() != null;
+    }
+
+    @Override
+    public int sessionCount() {
+        return count("SELECT COUNT(*) FROM " + table + " WHERE EXPIRY_TIME > ?");
+    }
+
+    // Rows already written plus this node's admissions that have not reached the table yet
+    @Override
+    public int signedInCount() {
+        long now = System.currentTimeMillis();
+        inFlight.values().removeIf(admittedAt -> admittedAt < now - IN_FLIGHT_MILLIS);
+        int signedIn = count("SELECT COUNT(*) FROM " + table + " WHERE EXPIRY_TIME > ? AND PRINCIPAL_NAME IS NOT NULL");
+        if (inFlight.isEmpty()) {
+            return signedIn;
+        }
+        List<String> ids = List.copyOf(inFlight.keySet());
+        List<String> written = jdbcTemplate.queryForList("SELECT SESSION_ID FROM " + table + " WHERE PRINCIPAL_NAME IS NOT NULL"
+            + " AND SESSION_ID IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")", String.class, ids.toArray());
+        written.forEach(inFlight::remove);
+        return signedIn + ids.size() - written.size();
+    }
+
+    @Override
+    public boolean isSignedIn(HttpSession session) {
+        return session.getAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME) != null;
+    }
+
+    // Form login also gets the index from the security context; /custom-login has none, so set it explicitly.
+    // Either way the row is written once, when the login request completes.
+    @Override
+    public void signedIn(HttpSession session, String username) {
+        session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, username);
+        inFlight.put(session.getId(), System.currentTimeMillis());
+    }
+
+    // Idle sessions only; expired rows are deleted by Spring Session's cleanup cron even when the reaper is off.
+    // Attribute rows go with their session through the ON DELETE CASCADE foreign key
+    @Override
+    public int reap(long idleSinceMillis) {
+        return jdbcTemplate.update("DELETE FROM " + table + " WHERE LAST_ACCESS_TIME < ?", idleSinceMillis);
+    }
+
+    @Override
+    public long averageSessionBytes() {
+        Long average = jdbcTemplate.queryForObject(
+            "SELECT AVG(BYTES) FROM (SELECT SUM(OCTET_LENGTH(ATTRIBUTE_BYTES)) AS BYTES FROM " + table
+                + "_ATTRIBUTES GROUP BY SESSION_PRIMARY_ID)", Long.class);
+        return average != null ? average : 0;
+    }
+
+    private int count(String sql) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, System.currentTimeMillis());
+        return count != null ? count : 0;
+    }
+}
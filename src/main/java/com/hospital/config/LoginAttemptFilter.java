@@ -0,0 +1,35 @@
+package com.hospital.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Runs ahead of UsernamePasswordAuthenticationFilter so a limited form login is turned away before the
+// user lookup and the password hash. Registered in SecurityConfig only, not as a servlet filter bean.
+public class LoginAttemptFilter extends OncePerRequestFilter {
+
+    private final LoginAttemptLimiter limiter;
+
+    public LoginAttemptFilter(LoginAttemptLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !("POST".equals(request.getMethod()) && "/login".equals(request.getServletPath()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire(request.getParameter("username"), request.getRemoteAddr())) {
+            response.sendRedirect("/login?locked");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
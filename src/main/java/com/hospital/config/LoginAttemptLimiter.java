@@ -0,0 +1,262 @@
+package com.hospital.config;
+
+import com.hospital.service.SettingsChangedEvent;
+import com.hospital.service.SystemSettingsService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Enforces security.maxLoginAttempts per email, and a multiple of it per client IP, over a sliding window.
+// Both login paths ask before looking the user up or hashing anything, so a credential-stuffing burst
+// costs a map lookup per attempt. A successful login clears the email and hands its attempt back to the IP,
+// so a busy shared address (the ward NAT) is only limited by its failures.
+// Keys live in lock stripes; a time wheel drops every key one window after its last attempt.
+@Component
+public class LoginAttemptLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptLimiter.class);
+
+    private static final String KEY = "security.maxLoginAttempts";
+    private static final int STRIPES = 32;
+    private static final int WHEEL_SLOTS = 60;
+
+    @Autowired
+    private SystemSettingsService systemSettingsService;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Value("${hospital.security.login-window-seconds:900}")
+    private long windowSeconds;
+
+    @Value("${hospital.security.login-attempts-per-ip-factor:10}")
+    private int perIpFactor;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final List<Set<String>> wheel = new ArrayList<>(WHEEL_SLOTS);
+
+    private volatile int maxAttempts;
+    private long windowMillis;
+    private long slotMillis;
+    private ScheduledFuture<?> ticker;
+
+    private final LongAdder blockedAttempts = new LongAdder();
+    private final LongAdder expiredKeys = new LongAdder();
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, ArrayDeque<Long>> attempts = new HashMap<>();
+    }
+
+    public LoginAttemptLimiter() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        maxAttempts = systemSettingsService.snapshot().getInt(KEY, 5);
+        windowMillis = Duration.ofSeconds(Math.max(WHEEL_SLOTS, windowSeconds)).toMillis();
+        slotMillis = windowMillis / WHEEL_SLOTS;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ticker = taskScheduler.scheduleAtFixedRate(this::expire, Instant.now().plusMillis(slotMillis),
+            Duration.ofMillis(slotMillis));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.cancel(false);
+        }
+    }
+
+    @EventListener
+    public void onSettingsChanged(SettingsChangedEvent event) {
+        if (event.changedKeys().contains(KEY)) {
+            maxAttempts = event.current().getInt(KEY, 5);
+            log.info("Login attempts limited to {} per {} s", maxAttempts, windowMillis / 1000);
+        }
+    }
+
+    // Records the attempt and returns true, or false without recording when the email or IP is over its limit
+    public boolean tryAcquire(String email, String clientIp) {
+        int limit = maxAttempts;
+        if (limit <= 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        String emailKey = emailKey(email);
+        String ipKey = "ip:" + clientIp;
+        Stripe emailStripe = stripe(emailKey);
+        Stripe ipStripe = stripe(ipKey);
+        // Always take the lower stripe first so two attempts can never wait on each other
+        Stripe first = index(emailKey) <= index(ipKey) ? emailStripe : ipStripe;
+        Stripe second = first == emailStripe ? ipStripe : emailStripe;
+        first.lock.lock();
+        second.lock.lock();
+        try {
+            // Read without creating: a rejected attempt must not leave an entry the wheel never sees
+            if (recent(emailStripe, emailKey, now) >= limit
+                    || recent(ipStripe, ipKey, now) >= limit * Math.max(1, perIpFactor)) {
+                blockedAttempts.increment();
+                return false;
+            }
+            emailStripe.attempts.computeIfAbsent(emailKey, k -> new ArrayDeque<>()).addLast(now);
+            ipStripe.attempts.computeIfAbsent(ipKey, k -> new ArrayDeque<>()).addLast(now);
+        } finally {
+            second.lock.unlock();
+            first.lock.unlock();
+        }
+        Set<String> slot = wheel.get(slot(now));
+        slot.add(emailKey);
+        slot.add(ipKey);
+        return true;
+    }
+
+    // The password was right: forget the email's failures and give the attempt back to the IP
+    public void succeeded(String email, String clientIp) {
+        String emailKey = emailKey(email);
+        Stripe stripe = stripe(emailKey);
+        stripe.lock.lock();
+        try {
+            stripe.attempts.remove(emailKey);
+        } finally {
+            stripe.lock.unlock();
+        }
+        giveBack("ip:" + clientIp);
+    }
+
+    // The attempt never got as far as checking the password, e.g. the hashing pool was saturated
+    public void release(String email, String clientIp) {
+        giveBack(emailKey(email));
+        giveBack("ip:" + clientIp);
+    }
+
+    public int getWindowMinutes() {
+        return (int) Math.max(1, windowMillis / 60_000);
+    }
+
+    public Map<String, Object> getStatistics() {
+        int tracked = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                tracked += stripe.attempts.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxLoginAttempts", maxAttempts);
+        stats.put("maxAttemptsPerIp", maxAttempts * Math.max(1, perIpFactor));
+        stats.put("windowSeconds", windowMillis / 1000);
+        stats.put("trackedKeys", tracked);
+        stats.put("blockedAttempts", blockedAttempts.sum());
+        stats.put("expiredKeys", expiredKeys.sum());
+        return stats;
+    }
+
+    private void giveBack(String key) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            ArrayDeque<Long> attempts = stripe.attempts.get(key);
+            if (attempts != null) {
+                attempts.pollLast();
+                if (attempts.isEmpty()) {
+                    stripe.attempts.remove(key);
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Caller holds the stripe lock; drops attempts that slid out of the window, and the key once none are left
+    private int recent(Stripe stripe, String key, long now) {
+        ArrayDeque<Long> attempts = stripe.attempts.get(key);
+        if (attempts == null) {
+            return 0;
+        }
+        while (!attempts.isEmpty() && attempts.peekFirst() <= now - windowMillis) {
+            attempts.pollFirst();
+        }
+        if (attempts.isEmpty()) {
+            stripe.attempts.remove(key);
+        }
+        return attempts.size();
+    }
+
+    // Clears the slot about to be reused: it holds keys last seen one window ago. Keys that still have
+    // attempts inside the window move to the current slot; the rest are removed.
+    private void expire() {
+        long now = System.currentTimeMillis();
+        int current = slot(now);
+        Set<String> oldest = wheel.get((current + 1) % WHEEL_SLOTS);
+        int removed = 0;
+        for (String key : oldest) {
+            Stripe stripe = stripe(key);
+            boolean keep;
+            stripe.lock.lock();
+            try {
+                boolean tracked = stripe.attempts.containsKey(key);
+                keep = recent(stripe, key, now) > 0;
+                if (tracked && !keep) {
+                    removed++;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            oldest.remove(key);
+            if (keep) {
+                wheel.get(current).add(key);
+            }
+        }
+        expiredKeys.add(removed);
+    }
+
+    private int slot(long millis) {
+        return (int) ((millis / slotMillis) % WHEEL_SLOTS);
+    }
+
+    private Stripe stripe(String key) {
+        return stripes[index(key)];
+    }
+
+    private static int index(String key) {
+        return (key.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + (email != null ? email.trim().toLowerCase(Locale.ROOT) : "");
+    }
+}
@@ -0,0 +1,17 @@
+package com.hospital.config;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import java.io.Serial;
+
+// The password hashing pool is saturated. Internal so ProviderManager reports it as is instead of
+// retrying the login with the parent manager, which would queue a second hash.
+public class PasswordVerificationBusyException extends InternalAuthenticationServiceException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public PasswordVerificationBusyException(String message) {
+        super(message);
+    }
+}
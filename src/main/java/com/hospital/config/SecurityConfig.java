@@ -1,18 +1,21 @@
 package com.hospital.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 
 import com.hospital.service.CustomUserDetailsService;
-import com.hospital.service.UserService;
+import com.hospital.service.HospitalUserDetails;
+import com.hospital.service.SessionUser;
 import com.hospital.model.User;
 
 @Configuration
@@ -20,8 +23,13 @@ import com.hospital.model.User;
 public class SecurityConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PooledPasswordEncoder passwordEncoder(@Value("${hospital.security.bcrypt-strength:10}") int strength,
+                                                 @Value("${hospital.security.hash-threads:0}") int threads,
+                                                 @Value("${hospital.security.hash-queue-capacity:200}") int queueCapacity,
+                                                 @Value("${hospital.security.hash-timeout-ms:5000}") long timeoutMillis) {
+        // 0 threads = half the CPUs, leaving the rest for request handling
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new PooledPasswordEncoder(strength, poolSize, queueCapacity, timeoutMillis);
     }
 
     @Bean
@@ -29,6 +37,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        // Rewrites hashes whose cost differs from hospital.security.bcrypt-strength on successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -38,9 +48,12 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, UserService userService, DaoAuthenticationProvider authProvider) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authProvider,
+                                           SessionAdmissionControl sessionAdmissionControl,
+                                           LoginAttemptLimiter loginAttemptLimiter) throws Exception {
         http
             .authenticationProvider(authProvider)
+            .addFilterBefore(new LoginAttemptFilter(loginAttemptLimiter), UsernamePasswordAuthenticationFilter.class)
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/signup", "/login", "/css/**", "/js/**").permitAll()
                 .anyRequest().authenticated()
@@ -48,12 +61,18 @@ public class SecurityConfig {
             .formLogin(form -> form
                 .loginPage("/login")
                 .successHandler((request, response, authentication) -> {
-                    String email = authentication.getName();
-                    User loggedIn = userService.findByEmail(email);
-                    if (loggedIn != null) {
-                        request.getSession().setAttribute("loggedInUser", loggedIn);
-                        request.getSession().setAttribute("userRole", loggedIn.getRole().toString());
-                        if (loggedIn.getRole() == User.Role.ADMIN) {
+                    // The principal already carries everything the session needs; no user lookup here
+                    if (authentication.getPrincipal() instanceof HospitalUserDetails principal) {
+                        loginAttemptLimiter.succeeded(principal.getUsername(), request.getRemoteAddr());
+                        if (!sessionAdmissionControl.tryAdmit(request.getSession(), principal.getUsername())) {
+                            SecurityContextHolder.clearContext();
+                            request.getSession().invalidate();
+                            response.sendRedirect("/login?busy");
+                            return;
+                        }
+                        request.getSession().setAttribute("loggedInUser", SessionUser.of(principal));
+                        request.getSession().setAttribute("userRole", principal.getRole().toString());
+                        if (principal.hasRole(User.Role.ADMIN)) {
                             response.sendRedirect("/admin-dashboard");
                             return;
                         } else {
@@ -63,6 +82,14 @@ public class SecurityConfig {
                     }
                     response.sendRedirect("/login");
                 })
+                .failureHandler((request, response, exception) -> {
+                    if (exception instanceof PasswordVerificationBusyException) {
+                        loginAttemptLimiter.release(request.getParameter("username"), request.getRemoteAddr());
+                        response.sendRedirect("/login?retry");
+                    } else {
+                        response.sendRedirect("/login?error");
+                    }
+                })
                 .permitAll()
             )
             .logout(logout -> logout
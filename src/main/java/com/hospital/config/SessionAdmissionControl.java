@@ -0,0 +1,172 @@
+package com.hospital.config;
+
+import com.hospital.service.SettingsChangedEvent;
+import com.hospital.service.SettingsSnapshot;
+import com.hospital.service.SystemSettingsService;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Applies the performance.maxConcurrentUsers and performance.sessionCleanupInterval settings.
+// A login is admitted only while fewer than maxConcurrentUsers sessions are signed in (0 = no limit);
+// the reaper runs every sessionCleanupInterval minutes and ends sessions idle for longer than
+// security.sessionTimeout. Both follow settings changes without a restart.
+// Sessions are counted in the JDBC store when Spring Session is active, otherwise in Tomcat's memory.
+@Component
+public class SessionAdmissionControl {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionAdmissionControl.class);
+
+    @Autowired
+    private SystemSettingsService systemSettingsService;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private JdbcSessionStore jdbcSessionStore;
+
+    @Autowired
+    private ContainerSessionStore containerSessionStore;
+
+    // Serializes admissions on this instance; with a shared store two instances can still each admit the last slot
+    private final ReentrantLock admission = new ReentrantLock();
+
+    private volatile SessionStore store;
+    private volatile int maxConcurrentUsers;
+    private volatile int sessionTimeoutMinutes;
+    private volatile int cleanupIntervalMinutes;
+    private ScheduledFuture<?> reaper;
+
+    private final LongAdder rejectedLogins = new LongAdder();
+    private final LongAdder reapedSessions = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        store = jdbcSessionStore.isActive() ? jdbcSessionStore : containerSessionStore;
+        log.info("HTTP sessions kept in {}", store == jdbcSessionStore ? "the database" : "server memory");
+        apply(systemSettingsService.snapshot());
+    }
+
+    @EventListener
+    public void onSettingsChanged(SettingsChangedEvent event) {
+        if (event.changed("performance.") || event.changed("security.sessionTimeout")) {
+            apply(event.current());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reaper != null) {
+            reaper.cancel(false);
+        }
+    }
+
+    // Counts the session as signed in; false when the limit is reached and the login should be refused
+    public boolean tryAdmit(HttpSession session, String username) {
+        SessionStore sessions = currentStore();
+        admission.lock();
+        try {
+            if (sessions.isSignedIn(session)) {
+                return true;
+            }
+            int limit = maxConcurrentUsers;
+            if (limit > 0) {
+                int signedIn = sessions.signedInCount();
+                if (signedIn >= limit) {
+                    rejectedLogins.increment();
+                    log.warn("Login refused: {} of {} concurrent users signed in", signedIn, limit);
+                    return false;
+                }
+            }
+            sessions.signedIn(session, username);
+            if (sessionTimeoutMinutes > 0) {
+                session.setMaxInactiveInterval(sessionTimeoutMinutes * 60);
+            }
+            return true;
+        } finally {
+            admission.unlock();
+        }
+    }
+
+    public int getMaxConcurrentUsers() {
+        return maxConcurrentUsers;
+    }
+
+    public Map<String, Object> getStatistics() {
+        SessionStore sessions = currentStore();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", sessions == jdbcSessionStore ? "jdbc" : "container");
+        stats.put("sessions", sessions.sessionCount());
+        stats.put("signedIn", sessions.signedInCount());
+        stats.put("maxConcurrentUsers", maxConcurrentUsers);
+        stats.put("sessionTimeoutMinutes", sessionTimeoutMinutes);
+        stats.put("cleanupIntervalMinutes", cleanupIntervalMinutes);
+        stats.put("rejectedLogins", rejectedLogins.sum());
+        stats.put("reapedSessions", reapedSessions.sum());
+        stats.put("averageSessionBytes", sessions.averageSessionBytes());
+        return stats;
+    }
+
+    // A login can arrive before ApplicationReadyEvent has picked the store
+    private SessionStore currentStore() {
+        SessionStore sessions = store;
+        if (sessions == null) {
+            sessions = jdbcSessionStore.isActive() ? jdbcSessionStore : containerSessionStore;
+        }
+        return sessions;
+    }
+
+    private synchronized void apply(SettingsSnapshot settings) {
+        maxConcurrentUsers = Math.max(0, settings.getInt("performance.maxConcurrentUsers", 100));
+        sessionTimeoutMinutes = Math.max(0, settings.getInt("security.sessionTimeout", 30));
+        int interval = Math.max(0, settings.getInt("performance.sessionCleanupInterval", 60));
+        if (interval != cleanupIntervalMinutes || reaper == null) {
+            if (reaper != null) {
+                reaper.cancel(false);
+                reaper = null;
+            }
+            cleanupIntervalMinutes = interval;
+            if (interval > 0) {
+                Duration every = Duration.ofMinutes(interval);
+                reaper = taskScheduler.scheduleWithFixedDelay(this::reapIdleSessions,
+                    Instant.now().plus(every), every);
+            }
+        }
+        log.info("Session limits: {} concurrent users, {} min timeout, reaper every {} min",
+            maxConcurrentUsers, sessionTimeoutMinutes, cleanupIntervalMinutes);
+    }
+
+    private void reapIdleSessions() {
+        int timeout = sessionTimeoutMinutes;
+        if (timeout <= 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - Duration.ofMinutes(timeout).toMillis();
+        int reaped;
+        try {
+            reaped = currentStore().reap(cutoff);
+        } catch (RuntimeException e) {
+            log.warn("Idle session cleanup failed", e);
+            return;
+        }
+        if (reaped > 0) {
+            reapedSessions.add(reaped);
+            log.info("Reaped {} idle sessions", reaped);
+        }
+    }
+}
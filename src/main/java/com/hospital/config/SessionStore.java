@@ -0,0 +1,23 @@
+package com.hospital.config;
+
+import jakarta.servlet.http.HttpSession;
+
+// Where HTTP sessions live, as seen by admission control and the idle-session reaper. Counts are
+// store-wide, so with a shared store they cover every instance behind the load balancer.
+public interface SessionStore {
+
+    int sessionCount();
+
+    int signedInCount();
+
+    boolean isSignedIn(HttpSession session);
+
+    // Called once a login has been admitted on this session
+    void signedIn(HttpSession session, String username);
+
+    // Ends sessions not used since the cutoff (epoch millis); returns how many were removed
+    int reap(long idleSinceMillis);
+
+    // Average serialized size of a session's attributes, i.e. what each session costs the store
+    long averageSessionBytes();
+}
@@ -0,0 +1,127 @@
+package com.hospital.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Opt-in virtual-thread mode (spring.threads.virtual.enabled, Java 21+). Spring Boot moves Tomcat, the MVC
+// async executor and the scheduler onto virtual threads; our own executors ask threadFactory() for theirs.
+// While it is on, a JFR stream logs every carrier pinning longer than the threshold, e.g. blocking inside
+// a synchronized block, with the frame that held the monitor.
+@Component
+public class VirtualThreadSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadSupport.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean requested;
+
+    @Value("${hospital.threads.pinned-threshold-ms:20}")
+    private long pinnedThresholdMillis;
+
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final LongAccumulator maxPinnedMillis = new LongAccumulator(Math::max, 0);
+    private RecordingStream pinnedStream;
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    public boolean isEnabled() {
+        return requested && isSupported();
+    }
+
+    // Virtual threads when the mode is on, named daemon platform threads otherwise
+    public ThreadFactory threadFactory(String name) {
+        if (isEnabled()) {
+            return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+        }
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startDiagnostics() {
+        if (requested && !isSupported()) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; using platform threads",
+                Runtime.version().feature());
+            return;
+        }
+        if (!isEnabled()) {
+            log.info("Request handling on platform threads");
+            return;
+        }
+        try {
+            pinnedStream = new RecordingStream();
+            pinnedStream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(pinnedThresholdMillis)).withStackTrace();
+            pinnedStream.onEvent(PINNED_EVENT, this::onPinned);
+            pinnedStream.startAsync();
+            log.info("Request handling on virtual threads; logging carrier pinning over {} ms", pinnedThresholdMillis);
+        } catch (RuntimeException e) {
+            log.warn("Virtual threads enabled but pinning diagnostics could not start", e);
+        }
+    }
+
+    @PreDestroy
+    public void stopDiagnostics() {
+        if (pinnedStream != null) {
+            pinnedStream.close();
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("virtualThreads", isEnabled());
+        stats.put("javaVersion", Runtime.version().feature());
+        stats.put("pinnedEvents", pinnedEvents.sum());
+        stats.put("maxPinnedMillis", maxPinnedMillis.get());
+        stats.put("pinnedThresholdMillis", pinnedThresholdMillis);
+        return stats;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        long millis = event.getDuration().toMillis();
+        pinnedEvents.increment();
+        maxPinnedMillis.accumulate(millis);
+        if (log.isWarnEnabled()) {
+            log.warn("Virtual thread pinned its carrier for {} ms at {}", millis, topFrames(event));
+        }
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        StringBuilder trace = new StringBuilder();
+        for (int i = 0; i < Math.min(frames.size(), 8); i++) {
+            RecordedFrame frame = frames.get(i);
+            trace.append("\n\tat ").append(frame.getMethod().getType().getName()).append('.')
+                .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+        }
+        return trace.toString();
+    }
+}
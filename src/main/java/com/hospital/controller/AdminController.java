@@ -1,22 +1,40 @@
 package com.hospital.controller;
 
+import com.hospital.config.SessionAdmissionControl;
+import com.hospital.config.LoginAttemptLimiter;
+import com.hospital.config.PooledPasswordEncoder;
+import com.hospital.config.VirtualThreadSupport;
+import com.hospital.model.Appointment;
 import com.hospital.model.User;
 import com.hospital.model.Department;
+import com.hospital.model.Patient;
 import com.hospital.model.Room;
 import com.hospital.service.UserService;
 import com.hospital.service.DepartmentService;
+import com.hospital.service.DashboardMetrics;
+import com.hospital.service.LiveUpdateBroadcaster;
+import com.hospital.service.PatientService;
 import com.hospital.service.RoomService;
 import com.hospital.service.SystemReportService;
+import com.hospital.service.SystemReportSnapshot;
 import com.hospital.service.DatabaseManagementService;
 import com.hospital.service.SystemSettingsService;
+import com.hospital.service.SlotSearchService;
+import com.hospital.service.SessionUser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Controller
@@ -40,11 +58,35 @@ public class AdminController {
     
     @Autowired
     private SystemSettingsService systemSettingsService;
+    
+    @Autowired
+    private SlotSearchService slotSearchService;
+    
+    @Autowired
+    private PatientService patientService;
+    
+    @Autowired
+    private DashboardMetrics dashboardMetrics;
+    
+    @Autowired
+    private LiveUpdateBroadcaster liveUpdateBroadcaster;
+
+    @Autowired
+    private VirtualThreadSupport virtualThreadSupport;
+
+    @Autowired
+    private SessionAdmissionControl sessionAdmissionControl;
+
+    @Autowired
+    private PooledPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
 
     @GetMapping("/user-management")
     public String userManagement(Model model, HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
         
@@ -59,8 +101,8 @@ public class AdminController {
 
     @GetMapping("/department-management")
     public String departmentManagement(Model model, HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
         
@@ -85,8 +127,8 @@ public class AdminController {
                            HttpServletRequest request,
                            RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
                 return "redirect:/login";
             }
 
@@ -118,8 +160,8 @@ public class AdminController {
                                  HttpServletRequest request,
                                  RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
                 return "redirect:/login";
             }
 
@@ -152,8 +194,8 @@ public class AdminController {
                                  HttpServletRequest request,
                                  RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
                 return "redirect:/login";
             }
 
@@ -190,8 +232,8 @@ public class AdminController {
                                        HttpServletRequest request,
                                        RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
                 return "redirect:/login";
             }
 
@@ -218,12 +260,12 @@ public class AdminController {
                            HttpServletRequest request,
                            RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
                 return "redirect:/login";
             }
 
-            if (userId.equals(currentUser.getId())) {
+            if (userId.equals(currentUser.id())) {
                 redirectAttributes.addFlashAttribute("error", "You cannot delete your own account!");
                 return "redirect:/admin/user-management";
             }
@@ -240,34 +282,89 @@ public class AdminController {
 
     @GetMapping("/room-management")
     public String roomManagement(Model model, HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
         
         model.addAttribute("currentUser", currentUser);
         model.addAttribute("allRooms", roomService.findAll());
-        model.addAttribute("totalRooms", roomService.getTotalRooms());
-        model.addAttribute("availableRooms", roomService.countByStatus(Room.RoomStatus.AVAILABLE));
-        model.addAttribute("occupiedRooms", roomService.countByStatus(Room.RoomStatus.OCCUPIED));
-        model.addAttribute("maintenanceRooms", roomService.countByStatus(Room.RoomStatus.MAINTENANCE));
+        if (dashboardMetrics.isLoaded()) {
+            model.addAttribute("totalRooms", dashboardMetrics.totalRooms());
+            model.addAttribute("availableRooms", dashboardMetrics.count(Room.RoomStatus.AVAILABLE));
+            model.addAttribute("occupiedRooms", dashboardMetrics.count(Room.RoomStatus.OCCUPIED));
+            model.addAttribute("maintenanceRooms", dashboardMetrics.count(Room.RoomStatus.MAINTENANCE));
+        } else {
+            // Counters are still being built at startup; count from the database meanwhile
+            model.addAttribute("totalRooms", roomService.getTotalRooms());
+            model.addAttribute("availableRooms", roomService.countByStatus(Room.RoomStatus.AVAILABLE));
+            model.addAttribute("occupiedRooms", roomService.countByStatus(Room.RoomStatus.OCCUPIED));
+            model.addAttribute("maintenanceRooms", roomService.countByStatus(Room.RoomStatus.MAINTENANCE));
+        }
+        model.addAttribute("nextRoomToClean", roomService.nextRoomToClean());
+        model.addAttribute("cleaningQueue", roomService.getCleaningQueue());
         model.addAttribute("allDepartments", departmentService.findAll());
         return "room-management";
     }
 
+    // Front desk capacity search: earliest free windows across a department's doctors
+    @GetMapping("/free-slots")
+    @ResponseBody
+    public ResponseEntity<?> findFreeSlots(@RequestParam Long departmentId,
+                                           @RequestParam(defaultValue = "CONSULTATION") String appointmentType,
+                                           @RequestParam(required = false) String from,
+                                           @RequestParam(defaultValue = "14") int days,
+                                           @RequestParam(defaultValue = "30") int duration,
+                                           @RequestParam(defaultValue = "10") int limit,
+                                           HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        Department department = departmentService.findById(departmentId);
+        if (department == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Department not found"));
+        }
+        try {
+            LocalDate start = from != null ? LocalDate.parse(from) : LocalDate.now();
+            List<Map<String, Object>> slots = slotSearchService.findFreeSlots(department,
+                Appointment.AppointmentType.valueOf(appointmentType.toUpperCase()),
+                start, start.plusDays(Math.max(1, days) - 1L), duration, Math.max(1, Math.min(limit, 100)));
+            return ResponseEntity.ok(slots);
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Live room, appointment and counter updates for admin screens, as server-sent events
+    @GetMapping(path = "/live-updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public ResponseEntity<SseEmitter> liveUpdates(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(liveUpdateBroadcaster.subscribe());
+    }
+
     @GetMapping("/system-reports")
     public String systemReports(Model model, HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
         
         model.addAttribute("currentUser", currentUser);
-        model.addAttribute("systemOverview", systemReportService.generateSystemOverviewReport());
-        model.addAttribute("departmentReport", systemReportService.generateDepartmentReport());
-        model.addAttribute("roomUtilization", systemReportService.generateRoomUtilizationReport());
-        model.addAttribute("userActivity", systemReportService.generateUserActivityReport());
-        model.addAttribute("appointmentReport", systemReportService.generateAppointmentReport());
+        SystemReportSnapshot report = systemReportService.getSnapshot();
+        model.addAttribute("systemOverview", report.getSection("systemOverview"));
+        model.addAttribute("departmentReport", report.getSection("departmentReport"));
+        model.addAttribute("roomUtilization", report.getSection("roomUtilization"));
+        model.addAttribute("userActivity", report.getSection("userActivity"));
+        model.addAttribute("appointmentReport", report.getSection("appointmentReport"));
+        model.addAttribute("reportGeneratedAt", report.getGeneratedAt());
+        model.addAttribute("reportStalenessSeconds", report.getStalenessSeconds());
+        model.addAttribute("reportComputationMillis", report.getComputationMillis());
         return "system-reports";
     }
 
@@ -284,8 +381,8 @@ public class AdminController {
                            HttpServletRequest request,
                            RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
                 return "redirect:/login";
             }
 
@@ -323,22 +420,20 @@ public class AdminController {
                                  HttpServletRequest request,
                                  RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
                 return "redirect:/login";
             }
 
-            Room room = roomService.findById(roomId);
+            Room room = roomService.changeStatus(roomId, Room.RoomStatus.valueOf(status.toUpperCase()));
             if (room == null) {
                 redirectAttributes.addFlashAttribute("error", "Room not found!");
                 return "redirect:/admin/room-management";
             }
-
-            room.setStatus(Room.RoomStatus.valueOf(status.toUpperCase()));
-            room.setUpdatedDate(LocalDateTime.now());
-            roomService.saveRoom(room);
             redirectAttributes.addFlashAttribute("success", "Room status updated successfully!");
             
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Error updating room status: " + e.getMessage());
         }
@@ -346,13 +441,122 @@ public class AdminController {
         return "redirect:/admin/room-management";
     }
 
+    @PostMapping("/allocate-bed")
+    public String allocateBed(@RequestParam String patientId,
+                            @RequestParam String roomType,
+                            @RequestParam(required = false) Long departmentId,
+                            HttpServletRequest request,
+                            RedirectAttributes redirectAttributes) {
+        try {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
+                return "redirect:/login";
+            }
+
+            Patient patient = patientService.findByPatientId(patientId.trim().toUpperCase());
+            if (patient == null) {
+                redirectAttributes.addFlashAttribute("error", "Patient not found!");
+                return "redirect:/admin/room-management";
+            }
+
+            Room room = roomService.allocateBestRoom(patient.getId(), Room.RoomType.valueOf(roomType.toUpperCase()), departmentId);
+            if (room != null) {
+                redirectAttributes.addFlashAttribute("success",
+                    "Room " + room.getRoomNumber() + " assigned to " + patient.getFullName() + "!");
+            } else {
+                redirectAttributes.addFlashAttribute("error", "No available room of type " + roomType + "!");
+            }
+            
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error allocating room: " + e.getMessage());
+        }
+        
+        return "redirect:/admin/room-management";
+    }
+
+    @GetMapping("/bed-allocation/stats")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> bedAllocationStats(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(roomService.getAllocationStatistics());
+    }
+
+    @GetMapping("/threading/stats")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> threadingStats(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(virtualThreadSupport.getStatistics());
+    }
+
+    @GetMapping("/sessions/stats")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> sessionStats(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(sessionAdmissionControl.getStatistics());
+    }
+
+    @GetMapping("/passwords/stats")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> passwordHashingStats(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(passwordEncoder.getStatistics());
+    }
+
+    @GetMapping("/logins/stats")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> loginAttemptStats(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(loginAttemptLimiter.getStatistics());
+    }
+
+    @PostMapping("/release-room")
+    public String releaseRoom(@RequestParam Long roomId,
+                            HttpServletRequest request,
+                            RedirectAttributes redirectAttributes) {
+        try {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
+                return "redirect:/login";
+            }
+
+            Room room = roomService.releaseRoom(roomId);
+            if (room != null) {
+                redirectAttributes.addFlashAttribute("success", "Room released and queued for cleaning!");
+            } else {
+                redirectAttributes.addFlashAttribute("error", "Room not found!");
+            }
+            
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error releasing room: " + e.getMessage());
+        }
+        
+        return "redirect:/admin/room-management";
+    }
+
     @PostMapping("/mark-room-cleaned")
     public String markRoomCleaned(@RequestParam Long roomId,
                                 HttpServletRequest request,
                                 RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
                 return "redirect:/login";
             }
 
@@ -372,8 +576,8 @@ public class AdminController {
 
     @GetMapping("/database-management")
     public String databaseManagement(Model model, HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
         
@@ -386,8 +590,8 @@ public class AdminController {
 
     @GetMapping("/system-settings")
     public String systemSettings(Model model, HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
         
@@ -400,8 +604,8 @@ public class AdminController {
 
     @PostMapping("/database-backup")
     public String performDatabaseBackup(HttpServletRequest request, RedirectAttributes redirectAttributes) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
 
@@ -421,8 +625,8 @@ public class AdminController {
 
     @PostMapping("/database-optimize")
     public String optimizeDatabase(HttpServletRequest request, RedirectAttributes redirectAttributes) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
 
@@ -442,8 +646,8 @@ public class AdminController {
 
     @PostMapping("/database-cleanup")
     public String cleanupDatabase(HttpServletRequest request, RedirectAttributes redirectAttributes) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
 
@@ -465,8 +669,8 @@ public class AdminController {
     public String updateSystemSettings(@RequestParam Map<String, String> settings,
                                      HttpServletRequest request,
                                      RedirectAttributes redirectAttributes) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
 
@@ -486,8 +690,8 @@ public class AdminController {
 
     @PostMapping("/reset-settings")
     public String resetSystemSettings(HttpServletRequest request, RedirectAttributes redirectAttributes) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
 
@@ -507,8 +711,8 @@ public class AdminController {
 
     @PostMapping("/export-settings")
     public String exportSystemSettings(HttpServletRequest request, RedirectAttributes redirectAttributes) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return "redirect:/login";
         }
 
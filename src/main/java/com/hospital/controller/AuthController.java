@@ -1,11 +1,16 @@
 package com.hospital.controller;
 
+import com.hospital.config.LoginAttemptLimiter;
+import com.hospital.config.PasswordVerificationBusyException;
+import com.hospital.config.SessionAdmissionControl;
 import com.hospital.model.User;
 import com.hospital.service.UserService;
 import com.hospital.service.PatientService;
 import com.hospital.service.AppointmentService;
+import com.hospital.service.DashboardMetrics;
 import com.hospital.service.MedicalRecordService;
 import com.hospital.service.PrescriptionService;
+import com.hospital.service.SessionUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -34,15 +39,38 @@ public class AuthController {
     
     @Autowired
     private PrescriptionService prescriptionService;
+    
+    @Autowired
+    private DashboardMetrics dashboardMetrics;
+    
+    @Autowired
+    private SessionAdmissionControl sessionAdmissionControl;
+    
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
 
     @GetMapping("/login")
-    public String login(Model model) {
+    public String login(@RequestParam(required = false) String busy, @RequestParam(required = false) String retry,
+                        @RequestParam(required = false) String locked, Model model) {
+        if (busy != null) {
+            model.addAttribute("error", "The system has reached its limit of " + sessionAdmissionControl.getMaxConcurrentUsers()
+                + " signed-in users. Please try again in a few minutes.");
+        } else if (retry != null) {
+            model.addAttribute("error", "Too many sign-ins at once, please try again in a moment");
+        } else if (locked != null) {
+            model.addAttribute("error", lockedMessage());
+        }
         // Add some debug info
         long totalUsers = userService.getTotalUsers();
         model.addAttribute("debugInfo", "Total users in database: " + totalUsers);
         return "login";
     }
 
+    private String lockedMessage() {
+        return "Too many sign-in attempts. Please wait up to " + loginAttemptLimiter.getWindowMinutes()
+            + " minutes before trying again.";
+    }
+
     @GetMapping("/signup")
     public String signup() {
         return "signup";
@@ -95,17 +123,24 @@ public class AuthController {
                              Model model,
                              jakarta.servlet.http.HttpServletRequest request) {
         try {
+            // Over the limit: refuse before the user lookup and the password hash
+            if (!loginAttemptLimiter.tryAcquire(username, request.getRemoteAddr())) {
+                model.addAttribute("error", lockedMessage());
+                return "login";
+            }
+            
             User user = userService.findByEmail(username);
             if (user == null) {
                 model.addAttribute("error", "Invalid email or password");
                 return "login";
             }
             
-            // Validate password
-            if (!userService.validatePassword(password, user.getPassword())) {
+            // Validate password (on the hashing pool, rehashed if the configured cost changed)
+            if (!userService.validatePassword(user, password)) {
                 model.addAttribute("error", "Invalid email or password");
                 return "login";
             }
+            loginAttemptLimiter.succeeded(username, request.getRemoteAddr());
             
             // Check if user is trying to login as admin
             if ("admin".equals(role)) {
@@ -125,8 +160,14 @@ public class AuthController {
                 }
             }
             
+            if (!sessionAdmissionControl.tryAdmit(request.getSession(), user.getEmail())) {
+                model.addAttribute("error", "The system has reached its limit of " + sessionAdmissionControl.getMaxConcurrentUsers()
+                    + " signed-in users. Please try again in a few minutes.");
+                return "login";
+            }
+            
             // Create session attributes to track logged in user
-            request.getSession().setAttribute("loggedInUser", user);
+            request.getSession().setAttribute("loggedInUser", SessionUser.of(user));
             request.getSession().setAttribute("userRole", user.getRole().toString());
             
             // Redirect to appropriate dashboard
@@ -136,6 +177,10 @@ public class AuthController {
                 return "redirect:/doctor-dashboard";
             }
             
+        } catch (PasswordVerificationBusyException e) {
+            loginAttemptLimiter.release(username, request.getRemoteAddr());
+            model.addAttribute("error", e.getMessage());
+            return "login";
         } catch (Exception e) {
             model.addAttribute("error", "Login failed: " + e.getMessage());
             return "login";
@@ -157,7 +202,7 @@ public class AuthController {
     @GetMapping("/admin-dashboard")
     public String adminDashboard(Model model, jakarta.servlet.http.HttpServletRequest request) {
         // Check if user is logged in
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
         String userRole = (String) request.getSession().getAttribute("userRole");
         
         if (currentUser == null || !"ADMIN".equals(userRole)) {
@@ -166,9 +211,16 @@ public class AuthController {
         
         // Get all users for admin dashboard
         model.addAttribute("currentUser", currentUser);
-        model.addAttribute("totalUsers", userService.getTotalUsers());
-        model.addAttribute("totalDoctors", userService.getTotalDoctors());
-        model.addAttribute("totalAdmins", userService.getTotalAdmins());
+        if (dashboardMetrics.isLoaded()) {
+            model.addAttribute("totalUsers", dashboardMetrics.totalUsers());
+            model.addAttribute("totalDoctors", dashboardMetrics.count(User.Role.DOCTOR));
+            model.addAttribute("totalAdmins", dashboardMetrics.count(User.Role.ADMIN));
+        } else {
+            // Counters are still being built at startup; count from the database meanwhile
+            model.addAttribute("totalUsers", userService.getTotalUsers());
+            model.addAttribute("totalDoctors", userService.getTotalDoctors());
+            model.addAttribute("totalAdmins", userService.getTotalAdmins());
+        }
         model.addAttribute("allUsers", userService.getAllUsers());
         return "admin-dashboard";
     }
@@ -176,19 +228,34 @@ public class AuthController {
     @GetMapping("/doctor-dashboard")
     public String doctorDashboard(Model model, jakarta.servlet.http.HttpServletRequest request) {
         // Check if user is logged in
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
         String userRole = (String) request.getSession().getAttribute("userRole");
         
         if (currentUser == null || !"DOCTOR".equals(userRole)) {
             return "redirect:/login";
         }
         
-        // Get real data from services
-        long totalPatients = patientService.countByDoctor(currentUser);
-        long todayAppointments = appointmentService.countByDoctorAndDate(currentUser, LocalDate.now());
-        long completedConsultations = appointmentService.countByDoctorAndStatus(currentUser, com.hospital.model.Appointment.Status.COMPLETED);
-        long totalMedicalRecords = medicalRecordService.countByDoctor(currentUser);
-        long activePrescriptions = prescriptionService.countByDoctorAndStatus(currentUser, com.hospital.model.Prescription.PrescriptionStatus.ACTIVE);
+        // Counters are maintained in memory by DashboardMetrics, counted from the database until its first load ends
+        Long doctorId = currentUser.id();
+        User doctor = userService.getReference(doctorId);
+        long totalPatients;
+        long todayAppointments;
+        long completedConsultations;
+        long totalMedicalRecords;
+        long activePrescriptions;
+        if (dashboardMetrics.isLoaded()) {
+            totalPatients = dashboardMetrics.patientsOf(doctorId);
+            todayAppointments = dashboardMetrics.appointmentsOf(doctorId, LocalDate.now());
+            completedConsultations = dashboardMetrics.appointmentsOf(doctorId, com.hospital.model.Appointment.Status.COMPLETED);
+            totalMedicalRecords = dashboardMetrics.medicalRecordsOf(doctorId);
+            activePrescriptions = dashboardMetrics.prescriptionsOf(doctorId, com.hospital.model.Prescription.PrescriptionStatus.ACTIVE);
+        } else {
+            totalPatients = patientService.countByDoctor(doctor);
+            todayAppointments = appointmentService.countByDoctorAndDate(doctor, LocalDate.now());
+            completedConsultations = appointmentService.countByDoctorAndStatus(doctor, com.hospital.model.Appointment.Status.COMPLETED);
+            totalMedicalRecords = medicalRecordService.countByDoctor(doctor);
+            activePrescriptions = prescriptionService.countByDoctorAndStatus(doctor, com.hospital.model.Prescription.PrescriptionStatus.ACTIVE);
+        }
         
         model.addAttribute("currentUser", currentUser);
         model.addAttribute("totalPatients", totalPatients);
@@ -196,8 +263,8 @@ public class AuthController {
         model.addAttribute("completedConsultations", completedConsultations);
         model.addAttribute("totalMedicalRecords", totalMedicalRecords);
         model.addAttribute("activePrescriptions", activePrescriptions);
-        model.addAttribute("doctorPatients", patientService.findByDoctor(currentUser));
-        model.addAttribute("todayAppointmentsList", appointmentService.findByDoctorAndDate(currentUser, LocalDate.now()));
+        model.addAttribute("doctorPatients", patientService.findByDoctor(doctor));
+        model.addAttribute("todayAppointmentsList", appointmentService.findByDoctorAndDate(doctor, LocalDate.now()));
         return "doctor-dashboard";
     }
     
@@ -7,18 +7,26 @@ import com.hospital.model.MedicalRecord;
 import com.hospital.model.Prescription;
 import com.hospital.service.PatientService;
 import com.hospital.service.AppointmentService;
+import com.hospital.service.LiveUpdateBroadcaster;
 import com.hospital.service.MedicalRecordService;
 import com.hospital.service.PrescriptionService;
+import com.hospital.service.SessionUser;
+import com.hospital.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/doctor")
@@ -35,6 +43,23 @@ public class DoctorController {
     
     @Autowired
     private PrescriptionService prescriptionService;
+    
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LiveUpdateBroadcaster liveUpdateBroadcaster;
+
+    // The signed-in doctor's appointment changes and dashboard counters, as server-sent events
+    @GetMapping(path = "/live-updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public ResponseEntity<SseEmitter> liveUpdates(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(liveUpdateBroadcaster.subscribeDoctor(currentUser.id()));
+    }
 
     @PostMapping("/add-patient")
     public String addPatient(@RequestParam String firstName,
@@ -51,8 +76,8 @@ public class DoctorController {
                            HttpServletRequest request,
                            RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
                 return "redirect:/login";
             }
 
@@ -68,7 +93,7 @@ public class DoctorController {
             patient.setAllergies(allergies);
             patient.setEmergencyContact(emergencyContact);
             patient.setEmergencyPhone(emergencyPhone);
-            patient.setDoctor(currentUser);
+            patient.setDoctor(userService.getReference(currentUser.id()));
 
             patientService.savePatient(patient);
             redirectAttributes.addFlashAttribute("success", "Patient added successfully!");
@@ -90,8 +115,8 @@ public class DoctorController {
                                     HttpServletRequest request,
                                     RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
                 return "redirect:/login";
             }
 
@@ -103,7 +128,7 @@ public class DoctorController {
 
             Appointment appointment = new Appointment();
             appointment.setPatient(patient);
-            appointment.setDoctor(currentUser);
+            appointment.setDoctor(userService.getReference(currentUser.id()));
             appointment.setAppointmentDateTime(LocalDateTime.parse(appointmentDate + "T" + appointmentTime));
             appointment.setAppointmentType(Appointment.AppointmentType.valueOf(appointmentType.toUpperCase()));
             appointment.setStatus(Appointment.Status.SCHEDULED);
@@ -113,6 +138,8 @@ public class DoctorController {
             appointmentService.saveAppointment(appointment);
             redirectAttributes.addFlashAttribute("success", "Appointment scheduled successfully!");
             
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", "Slot not available: " + e.getMessage());
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Error scheduling appointment: " + e.getMessage());
         }
@@ -120,14 +147,39 @@ public class DoctorController {
         return "redirect:/doctor-dashboard";
     }
 
+    @GetMapping("/free-slots")
+    @ResponseBody
+    public List<LocalDateTime> getFreeSlots(@RequestParam(required = false) String from,
+                                            @RequestParam(defaultValue = "10") int count,
+                                            HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
+            return List.of();
+        }
+        
+        LocalDateTime start = from != null ? LocalDateTime.parse(from) : LocalDateTime.now();
+        return appointmentService.findNextFreeSlots(userService.getReference(currentUser.id()), start, Math.max(1, Math.min(count, 50)));
+    }
+
+    @GetMapping("/day-view")
+    @ResponseBody
+    public Map<LocalDateTime, Long> getDayView(@RequestParam(required = false) String date, HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
+            return Map.of();
+        }
+        
+        return appointmentService.getDayView(userService.getReference(currentUser.id()), date != null ? LocalDate.parse(date) : LocalDate.now());
+    }
+
     @GetMapping("/patients")
     @ResponseBody
     public List<Patient> getPatients(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return List.of();
         }
-        return patientService.findByDoctor(currentUser);
+        return patientService.findByDoctor(userService.getReference(currentUser.id()));
     }
 
     @PostMapping("/add-medical-record")
@@ -146,8 +198,8 @@ public class DoctorController {
                                  HttpServletRequest request,
                                  RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
                 return "redirect:/login";
             }
 
@@ -159,7 +211,7 @@ public class DoctorController {
 
             MedicalRecord medicalRecord = new MedicalRecord();
             medicalRecord.setPatient(patient);
-            medicalRecord.setDoctor(currentUser);
+            medicalRecord.setDoctor(userService.getReference(currentUser.id()));
             medicalRecord.setRecordDate(LocalDateTime.now());
             medicalRecord.setRecordType(MedicalRecord.RecordType.valueOf(recordType.toUpperCase()));
             medicalRecord.setChiefComplaint(chiefComplaint);
@@ -203,8 +255,8 @@ public class DoctorController {
                                   HttpServletRequest request,
                                   RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
                 return "redirect:/login";
             }
 
@@ -216,7 +268,7 @@ public class DoctorController {
 
             Prescription prescription = new Prescription();
             prescription.setPatient(patient);
-            prescription.setDoctor(currentUser);
+            prescription.setDoctor(userService.getReference(currentUser.id()));
             prescription.setPrescriptionDate(LocalDateTime.now());
             prescription.setMedicationName(medicationName);
             prescription.setDosage(dosage);
@@ -249,8 +301,8 @@ public class DoctorController {
     @GetMapping("/medical-records/{patientId}")
     @ResponseBody
     public List<MedicalRecord> getPatientMedicalRecords(@PathVariable Long patientId, HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return List.of();
         }
         
@@ -259,14 +311,14 @@ public class DoctorController {
             return List.of();
         }
         
-        return medicalRecordService.findByPatientAndDoctor(patient, currentUser);
+        return medicalRecordService.findByPatientAndDoctor(patient, userService.getReference(currentUser.id()));
     }
 
     @GetMapping("/prescriptions/{patientId}")
     @ResponseBody
     public List<Prescription> getPatientPrescriptions(@PathVariable Long patientId, HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return List.of();
         }
         
@@ -275,32 +327,34 @@ public class DoctorController {
             return List.of();
         }
         
-        return prescriptionService.findByPatientAndDoctor(patient, currentUser);
+        return prescriptionService.findByPatientAndDoctor(patient, userService.getReference(currentUser.id()));
     }
 
     @GetMapping("/view-patient-records")
     public String viewPatientRecords(Model model, HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return "redirect:/login";
         }
         
         model.addAttribute("currentUser", currentUser);
-        model.addAttribute("doctorPatients", patientService.findByDoctor(currentUser));
-        model.addAttribute("allMedicalRecords", medicalRecordService.findByDoctor(currentUser));
+        User doctor = userService.getReference(currentUser.id());
+        model.addAttribute("doctorPatients", patientService.findByDoctor(doctor));
+        model.addAttribute("allMedicalRecords", medicalRecordService.findByDoctor(doctor));
         return "view-patient-records";
     }
 
     @GetMapping("/view-prescriptions")
     public String viewPrescriptions(Model model, HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return "redirect:/login";
         }
         
         model.addAttribute("currentUser", currentUser);
-        model.addAttribute("doctorPatients", patientService.findByDoctor(currentUser));
-        model.addAttribute("allPrescriptions", prescriptionService.findByDoctor(currentUser));
+        User doctor = userService.getReference(currentUser.id());
+        model.addAttribute("doctorPatients", patientService.findByDoctor(doctor));
+        model.addAttribute("allPrescriptions", prescriptionService.findByDoctor(doctor));
         model.addAttribute("activePrescriptions", prescriptionService.findByStatus(Prescription.PrescriptionStatus.ACTIVE));
         return "view-prescriptions";
     }
@@ -311,13 +365,13 @@ public class DoctorController {
                                          HttpServletRequest request,
                                          RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
                 return "redirect:/login";
             }
 
             Prescription prescription = prescriptionService.findById(prescriptionId);
-            if (prescription == null || !prescription.getDoctor().getId().equals(currentUser.getId())) {
+            if (prescription == null || !prescription.getDoctor().getId().equals(currentUser.id())) {
                 redirectAttributes.addFlashAttribute("error", "Prescription not found or access denied!");
                 return "redirect:/doctor/view-prescriptions";
             }
@@ -336,13 +390,13 @@ public class DoctorController {
     @GetMapping("/get-medical-record/{recordId}")
     @ResponseBody
     public java.util.Map<String, Object> getMedicalRecord(@PathVariable Long recordId, HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return java.util.Map.of("error", "Unauthorized");
         }
         
         MedicalRecord record = medicalRecordService.findById(recordId);
-        if (record == null || !record.getDoctor().getId().equals(currentUser.getId())) {
+        if (record == null || !record.getDoctor().getId().equals(currentUser.id())) {
             return java.util.Map.of("error", "Record not found or access denied");
         }
         
@@ -380,13 +434,13 @@ public class DoctorController {
                                     HttpServletRequest request,
                                     RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-            if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+            SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+            if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
                 return "redirect:/login";
             }
 
             MedicalRecord record = medicalRecordService.findById(recordId);
-            if (record == null || !record.getDoctor().getId().equals(currentUser.getId())) {
+            if (record == null || !record.getDoctor().getId().equals(currentUser.id())) {
                 redirectAttributes.addFlashAttribute("error", "Medical record not found or access denied!");
                 return "redirect:/doctor/view-patient-records";
             }
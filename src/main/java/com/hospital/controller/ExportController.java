@@ -1,7 +1,10 @@
 package com.hospital.controller;
 
+import com.hospital.model.Appointment;
 import com.hospital.model.User;
 import com.hospital.service.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -9,15 +12,20 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
 
 @Controller
 @RequestMapping("/export")
 public class ExportController {
 
+    private static final Logger log = LoggerFactory.getLogger(ExportController.class);
+
     @Autowired
     private ExportService exportService;
     
@@ -47,492 +55,429 @@ public class ExportController {
 
     // User Exports
     @GetMapping("/users/pdf")
-    public ResponseEntity<byte[]> exportUsersPdf(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+    public ResponseEntity<StreamingResponseBody> exportUsersPdf(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] pdfBytes = exportService.exportUsersToPdf(userService.getAllUsers());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "users_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
-            
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        var users = userService.getAllUsers();
+        StreamingResponseBody body = out -> exportService.exportUsersToPdf(users, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "users_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/users/excel")
-    public ResponseEntity<byte[]> exportUsersExcel(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+    public ResponseEntity<StreamingResponseBody> exportUsersExcel(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] excelBytes = exportService.exportUsersToExcel(userService.getAllUsers());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", "users_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
-            
-            return ResponseEntity.ok().headers(headers).body(excelBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        var users = userService.getAllUsers();
+        StreamingResponseBody body = out -> exportService.exportUsersToExcel(users, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", "users_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/users/csv")
-    public ResponseEntity<String> exportUsersCSV(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+    public ResponseEntity<StreamingResponseBody> exportUsersCSV(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            String csvData = exportService.exportUsersToCSV(userService.getAllUsers());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_PLAIN);
-            headers.setContentDispositionFormData("attachment", "users_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
-            
-            return ResponseEntity.ok().headers(headers).body(csvData);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        var users = userService.getAllUsers();
+        StreamingResponseBody body = out -> exportService.exportUsersToCSV(users, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        headers.setContentDispositionFormData("attachment", "users_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     // Prescription Exports
     @GetMapping("/prescriptions/pdf")
-    public ResponseEntity<byte[]> exportPrescriptionsPdf(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+    public ResponseEntity<StreamingResponseBody> exportPrescriptionsPdf(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] pdfBytes = exportService.exportPrescriptionsToPdf(prescriptionService.findByDoctor(currentUser));
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "prescriptions_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
-            
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> prescriptionService.streamByDoctor(userService.getReference(currentUser.id()),
+            prescriptions -> exportService.exportPrescriptionsToPdf(prescriptions, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "prescriptions_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/prescriptions/excel")
-    public ResponseEntity<byte[]> exportPrescriptionsExcel(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+    public ResponseEntity<StreamingResponseBody> exportPrescriptionsExcel(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] excelBytes = exportService.exportPrescriptionsToExcel(prescriptionService.findByDoctor(currentUser));
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", "prescriptions_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
-            
-            return ResponseEntity.ok().headers(headers).body(excelBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> prescriptionService.streamByDoctor(userService.getReference(currentUser.id()),
+            prescriptions -> exportService.exportPrescriptionsToExcel(prescriptions, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", "prescriptions_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/prescriptions/csv")
-    public ResponseEntity<String> exportPrescriptionsCSV(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+    public ResponseEntity<StreamingResponseBody> exportPrescriptionsCSV(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            String csvData = exportService.exportPrescriptionsToCSV(prescriptionService.findByDoctor(currentUser));
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_PLAIN);
-            headers.setContentDispositionFormData("attachment", "prescriptions_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
-            
-            return ResponseEntity.ok().headers(headers).body(csvData);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> prescriptionService.streamByDoctor(userService.getReference(currentUser.id()),
+            prescriptions -> exportService.exportPrescriptionsToCSV(prescriptions, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        headers.setContentDispositionFormData("attachment", "prescriptions_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     // Medical Records Exports
     @GetMapping("/medical-records/pdf")
-    public ResponseEntity<byte[]> exportMedicalRecordsPdf(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+    public ResponseEntity<StreamingResponseBody> exportMedicalRecordsPdf(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] pdfBytes = exportService.exportMedicalRecordsToPdf(medicalRecordService.findByDoctor(currentUser));
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "medical_records_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
-            
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> medicalRecordService.streamByDoctor(userService.getReference(currentUser.id()),
+            records -> exportService.exportMedicalRecordsToPdf(records, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "medical_records_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/medical-records/excel")
-    public ResponseEntity<byte[]> exportMedicalRecordsExcel(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+    public ResponseEntity<StreamingResponseBody> exportMedicalRecordsExcel(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] excelBytes = exportService.exportMedicalRecordsToExcel(medicalRecordService.findByDoctor(currentUser));
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", "medical_records_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
-            
-            return ResponseEntity.ok().headers(headers).body(excelBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> medicalRecordService.streamByDoctor(userService.getReference(currentUser.id()),
+            records -> exportService.exportMedicalRecordsToExcel(records, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", "medical_records_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/medical-records/csv")
-    public ResponseEntity<String> exportMedicalRecordsCSV(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.DOCTOR) {
+    public ResponseEntity<StreamingResponseBody> exportMedicalRecordsCSV(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.DOCTOR) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            String csvData = exportService.exportMedicalRecordsToCSV(medicalRecordService.findByDoctor(currentUser));
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_PLAIN);
-            headers.setContentDispositionFormData("attachment", "medical_records_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
-            
-            return ResponseEntity.ok().headers(headers).body(csvData);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> medicalRecordService.streamByDoctor(userService.getReference(currentUser.id()),
+            records -> exportService.exportMedicalRecordsToCSV(records, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        headers.setContentDispositionFormData("attachment", "medical_records_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     // Room Exports (Admin only)
     @GetMapping("/rooms/pdf")
-    public ResponseEntity<byte[]> exportRoomsPdf(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+    public ResponseEntity<StreamingResponseBody> exportRoomsPdf(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] pdfBytes = exportService.exportRoomsToPdf(roomService.findAll());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "rooms_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
-            
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        var rooms = roomService.findAll();
+        StreamingResponseBody body = out -> exportService.exportRoomsToPdf(rooms, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "rooms_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/rooms/excel")
-    public ResponseEntity<byte[]> exportRoomsExcel(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+    public ResponseEntity<StreamingResponseBody> exportRoomsExcel(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] excelBytes = exportService.exportRoomsToExcel(roomService.findAll());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", "rooms_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
-            
-            return ResponseEntity.ok().headers(headers).body(excelBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        var rooms = roomService.findAll();
+        StreamingResponseBody body = out -> exportService.exportRoomsToExcel(rooms, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", "rooms_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/rooms/csv")
-    public ResponseEntity<String> exportRoomsCSV(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+    public ResponseEntity<StreamingResponseBody> exportRoomsCSV(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            String csvData = exportService.exportRoomsToCSV(roomService.findAll());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_PLAIN);
-            headers.setContentDispositionFormData("attachment", "rooms_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
-            
-            return ResponseEntity.ok().headers(headers).body(csvData);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        var rooms = roomService.findAll();
+        StreamingResponseBody body = out -> exportService.exportRoomsToCSV(rooms, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        headers.setContentDispositionFormData("attachment", "rooms_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     // Department Exports (Admin only)
     @GetMapping("/departments/pdf")
-    public ResponseEntity<byte[]> exportDepartmentsPdf(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+    public ResponseEntity<StreamingResponseBody> exportDepartmentsPdf(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] pdfBytes = exportService.exportDepartmentsToPdf(departmentService.findAll());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "departments_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
-            
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        var departments = departmentService.findAll();
+        StreamingResponseBody body = out -> exportService.exportDepartmentsToPdf(departments, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "departments_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/departments/excel")
-    public ResponseEntity<byte[]> exportDepartmentsExcel(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+    public ResponseEntity<StreamingResponseBody> exportDepartmentsExcel(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] excelBytes = exportService.exportDepartmentsToExcel(departmentService.findAll());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", "departments_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
-            
-            return ResponseEntity.ok().headers(headers).body(excelBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        var departments = departmentService.findAll();
+        StreamingResponseBody body = out -> exportService.exportDepartmentsToExcel(departments, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", "departments_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/departments/csv")
-    public ResponseEntity<String> exportDepartmentsCSV(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+    public ResponseEntity<StreamingResponseBody> exportDepartmentsCSV(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            String csvData = exportService.exportDepartmentsToCSV(departmentService.findAll());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_PLAIN);
-            headers.setContentDispositionFormData("attachment", "departments_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
-            
-            return ResponseEntity.ok().headers(headers).body(csvData);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        var departments = departmentService.findAll();
+        StreamingResponseBody body = out -> exportService.exportDepartmentsToCSV(departments, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        headers.setContentDispositionFormData("attachment", "departments_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     // Patient Exports (Admin and Doctor)
     @GetMapping("/patients/pdf")
-    public ResponseEntity<byte[]> exportPatientsPdf(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || (currentUser.getRole() != User.Role.ADMIN && currentUser.getRole() != User.Role.DOCTOR)) {
+    public ResponseEntity<StreamingResponseBody> exportPatientsPdf(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || (currentUser.role() != User.Role.ADMIN && currentUser.role() != User.Role.DOCTOR)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] pdfBytes = exportService.exportPatientsToPdf(patientService.findAll());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "patients_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
-            
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> patientService.streamAll(
+            patients -> exportService.exportPatientsToPdf(patients, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "patients_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/patients/excel")
-    public ResponseEntity<byte[]> exportPatientsExcel(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || (currentUser.getRole() != User.Role.ADMIN && currentUser.getRole() != User.Role.DOCTOR)) {
+    public ResponseEntity<StreamingResponseBody> exportPatientsExcel(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || (currentUser.role() != User.Role.ADMIN && currentUser.role() != User.Role.DOCTOR)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            byte[] excelBytes = exportService.exportPatientsToExcel(patientService.findAll());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", "patients_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
-            
-            return ResponseEntity.ok().headers(headers).body(excelBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> patientService.streamAll(
+            patients -> exportService.exportPatientsToExcel(patients, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", "patients_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/patients/csv")
-    public ResponseEntity<String> exportPatientsCSV(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || (currentUser.getRole() != User.Role.ADMIN && currentUser.getRole() != User.Role.DOCTOR)) {
+    public ResponseEntity<StreamingResponseBody> exportPatientsCSV(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || (currentUser.role() != User.Role.ADMIN && currentUser.role() != User.Role.DOCTOR)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            String csvData = exportService.exportPatientsToCSV(patientService.findAll());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_PLAIN);
-            headers.setContentDispositionFormData("attachment", "patients_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
-            
-            return ResponseEntity.ok().headers(headers).body(csvData);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> patientService.streamAll(
+            patients -> exportService.exportPatientsToCSV(patients, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        headers.setContentDispositionFormData("attachment", "patients_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     // Appointment Exports (Admin and Doctor)
     @GetMapping("/appointments/pdf")
-    public ResponseEntity<byte[]> exportAppointmentsPdf(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || (currentUser.getRole() != User.Role.ADMIN && currentUser.getRole() != User.Role.DOCTOR)) {
+    public ResponseEntity<StreamingResponseBody> exportAppointmentsPdf(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || (currentUser.role() != User.Role.ADMIN && currentUser.role() != User.Role.DOCTOR)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            var appointments = currentUser.getRole() == User.Role.ADMIN ? 
-                appointmentService.findAll() : 
-                appointmentService.findByDoctor(currentUser);
-            
-            byte[] pdfBytes = exportService.exportAppointmentsToPdf(appointments);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "appointments_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
-            
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> streamAppointments(currentUser,
+            appointments -> exportService.exportAppointmentsToPdf(appointments, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "appointments_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/appointments/excel")
-    public ResponseEntity<byte[]> exportAppointmentsExcel(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || (currentUser.getRole() != User.Role.ADMIN && currentUser.getRole() != User.Role.DOCTOR)) {
+    public ResponseEntity<StreamingResponseBody> exportAppointmentsExcel(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || (currentUser.role() != User.Role.ADMIN && currentUser.role() != User.Role.DOCTOR)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            var appointments = currentUser.getRole() == User.Role.ADMIN ? 
-                appointmentService.findAll() : 
-                appointmentService.findByDoctor(currentUser);
-            
-            byte[] excelBytes = exportService.exportAppointmentsToExcel(appointments);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", "appointments_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
-            
-            return ResponseEntity.ok().headers(headers).body(excelBytes);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> streamAppointments(currentUser,
+            appointments -> exportService.exportAppointmentsToExcel(appointments, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", "appointments_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     @GetMapping("/appointments/csv")
-    public ResponseEntity<String> exportAppointmentsCSV(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || (currentUser.getRole() != User.Role.ADMIN && currentUser.getRole() != User.Role.DOCTOR)) {
+    public ResponseEntity<StreamingResponseBody> exportAppointmentsCSV(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || (currentUser.role() != User.Role.ADMIN && currentUser.role() != User.Role.DOCTOR)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            var appointments = currentUser.getRole() == User.Role.ADMIN ? 
-                appointmentService.findAll() : 
-                appointmentService.findByDoctor(currentUser);
-            
-            String csvData = exportService.exportAppointmentsToCSV(appointments);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_PLAIN);
-            headers.setContentDispositionFormData("attachment", "appointments_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
-            
-            return ResponseEntity.ok().headers(headers).body(csvData);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        StreamingResponseBody body = out -> streamAppointments(currentUser,
+            appointments -> exportService.exportAppointmentsToCSV(appointments, out));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        headers.setContentDispositionFormData("attachment", "appointments_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
     }
 
     // System Reports Exports (Admin only)
     @GetMapping("/system-report/pdf")
-    public ResponseEntity<byte[]> exportSystemReportPdf(HttpServletRequest request) {
-        User currentUser = (User) request.getSession().getAttribute("loggedInUser");
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+    public ResponseEntity<StreamingResponseBody> exportSystemReportPdf(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null || currentUser.role() != User.Role.ADMIN) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            var systemOverview = systemReportService.generateSystemOverviewReport();
-            var departmentReport = systemReportService.generateDepartmentReport();
-            var roomUtilization = systemReportService.generateRoomUtilizationReport();
-            var userActivity = systemReportService.generateUserActivityReport();
-            var appointmentReport = systemReportService.generateAppointmentReport();
-            
-            var reportData = java.util.Map.of(
-                "systemOverview", systemOverview,
-                "departmentReport", departmentReport,
-                "roomUtilization", roomUtilization,
-                "userActivity", userActivity,
-                "appointmentReport", appointmentReport
-            );
-            
-            // PDF export for system reports not yet implemented
-            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED)
-                .body("PDF export for system reports not yet implemented. Please use the web interface.".getBytes());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        var report = systemReportService.getSnapshot();
+        StreamingResponseBody body = out -> exportService.exportSystemReportToPdf(report, out);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "system_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
+        
+        return ResponseEntity.ok().headers(headers).body(abortOnFailure(request, body));
+    }
+
+    // The body runs after the 200 and headers are sent, so a failure can no longer become an error status.
+    // Rethrowing lets Tomcat drop the connection instead of ending the chunked body cleanly, so the client
+    // sees a failed download rather than a truncated file that looks complete.
+    private StreamingResponseBody abortOnFailure(HttpServletRequest request, StreamingResponseBody body) {
+        String export = request.getRequestURI();
+        return out -> {
+            try {
+                body.writeTo(out);
+            } catch (IOException | RuntimeException e) {
+                log.error("Export {} failed after the response was committed", export, e);
+                throw e;
+            }
+        };
+    }
+
+    // Admins export every appointment, doctors only their own
+    private void streamAppointments(SessionUser currentUser, Consumer<Iterable<Appointment>> consumer) {
+        if (currentUser.role() == User.Role.ADMIN) {
+            appointmentService.streamAll(consumer);
+        } else {
+            appointmentService.streamByDoctor(userService.getReference(currentUser.id()), consumer);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.hospital.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.model.User;
+import com.hospital.service.ExportJob;
+import com.hospital.service.ExportJobService;
+import com.hospital.service.SessionUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+// Background exports: submit a job, poll its progress, then download the spooled file
+@Controller
+@RequestMapping("/export/jobs")
+public class ExportJobController {
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PostMapping
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> submitJob(@RequestParam String target,
+                                                         @RequestParam String format,
+                                                         HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        ExportJob.Target exportTarget;
+        ExportJob.Format exportFormat;
+        try {
+            exportTarget = ExportJob.Target.fromPath(target);
+            exportFormat = ExportJob.Format.fromPath(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown export " + target + "/" + format));
+        }
+        if (!exportJobService.isAllowed(currentUser, exportTarget)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            ExportJob job = exportJobService.submit(currentUser, exportTarget, exportFormat);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toProgress());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    @ResponseBody
+    public ResponseEntity<List<Map<String, Object>>> listJobs(HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(exportJobService.getJobs(currentUser).stream()
+            .map(ExportJob::toProgress)
+            .toList());
+    }
+
+    @GetMapping("/{jobId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId, HttpServletRequest request) {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        ExportJob job = exportJobService.getJob(jobId, currentUser);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job.toProgress());
+    }
+
+    @GetMapping("/{jobId}/download")
+    public void downloadJob(@PathVariable String jobId, HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        SessionUser currentUser = (SessionUser) request.getSession().getAttribute("loggedInUser");
+        if (currentUser == null) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value());
+            return;
+        }
+
+        ExportJob job = exportJobService.getJob(jobId, currentUser);
+        if (job == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        // Terminal: the job's progress, error included, so clients stop polling
+        if (job.getStatus() == ExportJob.Status.FAILED) {
+            response.setStatus(HttpStatus.GONE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), job.toProgress());
+            return;
+        }
+        if (job.getStatus() != ExportJob.Status.COMPLETED) {
+            response.sendError(HttpStatus.CONFLICT.value(), "Export is not finished yet");
+            return;
+        }
+        // Completed but the spool file is gone, e.g. removed by the retention sweep
+        if (job.getFile() == null || !Files.exists(job.getFile())) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        // Stream the spooled file in chunks; the servlet stream is not a file channel, so transferTo copies
+        // through a small buffer rather than the whole file in memory
+        try (FileChannel file = FileChannel.open(job.getFile(), StandardOpenOption.READ)) {
+            long size = file.size();
+            response.setContentType(job.getFormat().getContentType());
+            response.setContentLengthLong(size);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(job.getFileName()).build().toString());
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += file.transferTo(position, size - position, out);
+            }
+            response.flushBuffer();
+        }
+    }
+}
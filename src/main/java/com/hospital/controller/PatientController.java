@@ -2,17 +2,29 @@ package com.hospital.controller;
 
 import com.hospital.model.Patient;
 import com.hospital.model.User;
+import com.hospital.service.HospitalUserDetails;
+import com.hospital.service.UserSnapshot;
+import com.hospital.service.UserSnapshotCache;
+import com.hospital.service.PatientImportResult;
+import com.hospital.service.PatientImportService;
+import com.hospital.service.PatientPage;
 import com.hospital.service.PatientService;
 import com.hospital.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,6 +39,12 @@ public class PatientController {
     
     @Autowired
     private UserService userService;
+    
+    @Autowired
+    private UserSnapshotCache userSnapshotCache;
+
+    @Autowired
+    private PatientImportService patientImportService;
 
     @GetMapping("/patient-management")
     public String patientManagement(Model model, HttpServletRequest request,
@@ -34,15 +52,12 @@ public class PatientController {
                                   @RequestParam(required = false) String status,
                                   @RequestParam(required = false) String gender,
                                   @RequestParam(required = false) String bloodGroup,
-                                  @RequestParam(required = false) Long doctorId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return "redirect:/login";
-        }
-        
-        String userEmail = authentication.getName();
-        User currentUser = userService.findByEmail(userEmail);
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+                                  @RequestParam(required = false) Long doctorId,
+                                  @RequestParam(required = false) String after,
+                                  @RequestParam(required = false) String before,
+                                  @RequestParam(defaultValue = "25") int size) {
+        UserSnapshot currentUser = currentAdmin();
+        if (currentUser == null) {
             return "redirect:/login";
         }
         
@@ -59,7 +74,16 @@ public class PatientController {
             
             patients = patientService.findPatientsWithFilters(search, patientStatus, patientGender, patientBloodGroup, doctor);
         } else {
-            patients = patientService.findAllOrderByName();
+            // Unfiltered listing is paged by (lastName, id) cursors instead of loading every patient
+            PatientPage page;
+            try {
+                page = patientService.findPage(after, before, size);
+            } catch (IllegalArgumentException e) {
+                page = patientService.findPage(null, null, size);
+            }
+            patients = page.getPatients();
+            model.addAttribute("patientPage", page);
+            model.addAttribute("pageSizeOptions", List.of(10, 25, 50, 100));
         }
         
         model.addAttribute("currentUser", currentUser);
@@ -107,14 +131,7 @@ public class PatientController {
                               HttpServletRequest request,
                               RedirectAttributes redirectAttributes) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                return "redirect:/login";
-            }
-            
-            String userEmail = authentication.getName();
-            User currentUser = userService.findByEmail(userEmail);
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            if (currentAdmin() == null) {
                 return "redirect:/login";
             }
 
@@ -173,20 +190,47 @@ public class PatientController {
         return "redirect:/admin/patient-management";
     }
 
+    // Bulk import of a CSV or XLSX roster; responds with throughput and the rejected rows
+    @PostMapping("/import-patients")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> importPatients(@RequestParam("file") MultipartFile file,
+                                                              @RequestParam(required = false) Long doctorId) {
+        if (currentAdmin() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No file uploaded"));
+        }
+
+        User doctor = doctorId != null ? userService.findById(doctorId) : null;
+        if (doctorId != null && (doctor == null || doctor.getRole() != User.Role.DOCTOR)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown doctor " + doctorId));
+        }
+
+        // Spooled to disk so an XLSX can be opened as a file instead of being buffered in memory
+        Path upload = null;
+        try {
+            upload = Files.createTempFile("patient-import-", ".upload");
+            file.transferTo(upload);
+            PatientImportResult result = patientImportService.importPatients(upload, file.getOriginalFilename(), doctor);
+            return ResponseEntity.ok(result.toReport());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Error importing patients: " + e.getMessage()));
+        } finally {
+            deleteQuietly(upload);
+        }
+    }
+
     @PostMapping("/update-patient-status")
     public String updatePatientStatus(@RequestParam Long patientId,
                                     @RequestParam String status,
                                     HttpServletRequest request,
                                     RedirectAttributes redirectAttributes) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                return "redirect:/login";
-            }
-            
-            String userEmail = authentication.getName();
-            User currentUser = userService.findByEmail(userEmail);
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            if (currentAdmin() == null) {
                 return "redirect:/login";
             }
 
@@ -209,14 +253,8 @@ public class PatientController {
 
     @GetMapping("/patient-details/{id}")
     public String patientDetails(@PathVariable Long id, Model model, HttpServletRequest request) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return "redirect:/login";
-        }
-        
-        String userEmail = authentication.getName();
-        User currentUser = userService.findByEmail(userEmail);
-        if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+        UserSnapshot currentUser = currentAdmin();
+        if (currentUser == null) {
             return "redirect:/login";
         }
         
@@ -250,14 +288,7 @@ public class PatientController {
                               HttpServletRequest request,
                               RedirectAttributes redirectAttributes) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                return "redirect:/login";
-            }
-            
-            String userEmail = authentication.getName();
-            User currentUser = userService.findByEmail(userEmail);
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            if (currentAdmin() == null) {
                 return "redirect:/login";
             }
 
@@ -303,14 +334,7 @@ public class PatientController {
                               HttpServletRequest request,
                               RedirectAttributes redirectAttributes) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                return "redirect:/login";
-            }
-            
-            String userEmail = authentication.getName();
-            User currentUser = userService.findByEmail(userEmail);
-            if (currentUser == null || currentUser.getRole() != User.Role.ADMIN) {
+            if (currentAdmin() == null) {
                 return "redirect:/login";
             }
 
@@ -323,4 +347,30 @@ public class PatientController {
         
         return "redirect:/admin/patient-management";
     }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    // The principal only identifies the user; role and status come from the snapshot cache on every call, so
+    // deleting, demoting or deactivating an admin takes effect on their next request (UserService evicts)
+    private UserSnapshot currentAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof HospitalUserDetails principal)) {
+            return null;
+        }
+        UserSnapshot user = userSnapshotCache.getById(principal.getId());
+        if (user == null || user.role() != User.Role.ADMIN || !user.isActive()) {
+            return null;
+        }
+        return user;
+    }
 }
\ No newline at end of file
@@ -1,20 +1,26 @@
 package com.hospital.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "appointments")
+@NamedEntityGraph(name = "Appointment.withPatient", attributeNodes = @NamedAttributeNode("patient"))
+@NamedEntityGraph(name = "Appointment.withParticipants", attributeNodes = {
+    @NamedAttributeNode("patient"), @NamedAttributeNode("doctor")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Appointment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    
-    @ManyToOne
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     private Patient patient;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     private User doctor;
     
@@ -82,4 +88,4 @@ public class Appointment {
     public enum Status {
         SCHEDULED, IN_PROGRESS, COMPLETED, CANCELLED, NO_SHOW
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,15 @@
 package com.hospital.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Table(name = "departments")
+@NamedEntityGraph(name = "Department.withHead", attributeNodes = @NamedAttributeNode("headOfDepartment"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Department {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,7 +30,7 @@ public class Department {
     @Column
     private String email;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "head_of_department_id")
     private User headOfDepartment;
     
@@ -47,6 +51,7 @@ public class Department {
     private String specialization;
     
     @OneToMany(mappedBy = "department", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @JsonIgnore
     private List<User> doctors;
     
     // Constructors
@@ -1,24 +1,32 @@
 package com.hospital.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "medical_records")
+@NamedEntityGraph(name = "MedicalRecord.withParticipants", attributeNodes = {
+    @NamedAttributeNode("patient"), @NamedAttributeNode("doctor")
+})
+@NamedEntityGraph(name = "MedicalRecord.detail", attributeNodes = {
+    @NamedAttributeNode("patient"), @NamedAttributeNode("doctor"), @NamedAttributeNode("appointment")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class MedicalRecord {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    
-    @ManyToOne
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     private Patient patient;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     private User doctor;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id")
     private Appointment appointment;
     
@@ -108,4 +116,4 @@ public class MedicalRecord {
     public enum RecordType {
         CONSULTATION, FOLLOW_UP, EMERGENCY, ROUTINE_CHECKUP, SPECIALIST_VISIT, SURGERY, LAB_RESULTS
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,21 @@
 package com.hospital.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "patients")
+@Table(name = "patients", indexes = {
+    @Index(name = "idx_patients_last_name_id", columnList = "lastName, id")
+})
+@NamedEntityGraph(name = "Patient.withDoctor", attributeNodes = @NamedAttributeNode("doctor"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Patient {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    
+
     @Column(nullable = false, unique = true)
     private String patientId; // Auto-generated patient ID like P001, P002
     
@@ -93,7 +98,7 @@ public class Patient {
     @Column(nullable = false)
     private PatientStatus status;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id")
     private User doctor;
     
@@ -247,4 +252,4 @@ public class Patient {
     public enum PatientStatus {
         ACTIVE, INACTIVE, DISCHARGED, DECEASED, TRANSFERRED
     }
-}
\ No newline at end of file
+}
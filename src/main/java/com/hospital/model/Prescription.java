@@ -1,25 +1,33 @@
 package com.hospital.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "prescriptions")
+@NamedEntityGraph(name = "Prescription.withParticipants", attributeNodes = {
+    @NamedAttributeNode("patient"), @NamedAttributeNode("doctor")
+})
+@NamedEntityGraph(name = "Prescription.detail", attributeNodes = {
+    @NamedAttributeNode("patient"), @NamedAttributeNode("doctor"), @NamedAttributeNode("appointment")
+})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Prescription {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    
-    @ManyToOne
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     private Patient patient;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     private User doctor;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id")
     private Appointment appointment;
     
@@ -121,4 +129,4 @@ public class Prescription {
     public enum PrescriptionStatus {
         ACTIVE, COMPLETED, CANCELLED, EXPIRED
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,23 @@
 package com.hospital.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "rooms")
+// One room per patient; rooms without a patient (NULL) are not affected
+@Table(name = "rooms", uniqueConstraints = @UniqueConstraint(name = "uk_rooms_current_patient", columnNames = "current_patient_id"))
+@NamedEntityGraph(name = "Room.withDepartment", attributeNodes = @NamedAttributeNode("department"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Room {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+
+    // Optimistic lock for bed assignment; existing rows start at 0
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
     
     @Column(nullable = false, unique = true)
     private String roomNumber;
@@ -17,7 +26,7 @@ public class Room {
     @Column(nullable = false)
     private RoomType roomType;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id")
     private Department department;
     
@@ -43,7 +52,7 @@ public class Room {
     @Column
     private Double dailyRate;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "current_patient_id")
     private Patient currentPatient;
     
@@ -120,6 +129,9 @@ public class Room {
     public LocalDateTime getUpdatedDate() { return updatedDate; }
     public void setUpdatedDate(LocalDateTime updatedDate) { this.updatedDate = updatedDate; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
     public enum RoomType {
         GENERAL_WARD, PRIVATE_ROOM, ICU, EMERGENCY, OPERATING_ROOM, 
         CONSULTATION_ROOM, LABORATORY, RADIOLOGY, MATERNITY, PEDIATRIC
@@ -128,4 +140,4 @@ public class Room {
     public enum RoomStatus {
         AVAILABLE, OCCUPIED, MAINTENANCE, CLEANING, OUT_OF_ORDER, RESERVED
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.hospital.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One row per saved version of the system settings; the highest version is the live one
+@Entity
+@Table(name = "settings_revisions")
+public class SettingsRevision {
+    @Id
+    private Long version;
+
+    // All settings of this version as a JSON object
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String settings;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDate;
+
+    // Constructors
+    public SettingsRevision() {
+    }
+
+    public SettingsRevision(Long version, String settings, LocalDateTime createdDate) {
+        this.version = version;
+        this.settings = settings;
+        this.createdDate = createdDate;
+    }
+
+    // Getters and Setters
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public String getSettings() { return settings; }
+    public void setSettings(String settings) { this.settings = settings; }
+
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+}
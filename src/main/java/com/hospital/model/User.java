@@ -1,15 +1,18 @@
 package com.hospital.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@NamedEntityGraph(name = "User.withDepartment", attributeNodes = @NamedAttributeNode("department"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    
+
     @Column(nullable = false)
     private String firstName;
     
@@ -26,7 +29,7 @@ public class User {
     @Column(nullable = false)
     private Role role;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id")
     private Department department;
     
@@ -111,4 +114,4 @@ public class User {
     public enum UserStatus {
         ACTIVE, INACTIVE, SUSPENDED, PENDING_APPROVAL
     }
-}
\ No newline at end of file
+}
@@ -3,19 +3,27 @@ package com.hospital.repository;
 import com.hospital.model.Appointment;
 import com.hospital.model.Patient;
 import com.hospital.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+    @EntityGraph("Appointment.withPatient")
     List<Appointment> findByDoctorOrderByAppointmentDateTimeAsc(User doctor);
     List<Appointment> findByDoctor(User doctor);
     List<Appointment> findByPatient(Patient patient);
+    @EntityGraph("Appointment.withPatient")
     List<Appointment> findByDoctorAndAppointmentDateTimeBetween(User doctor, LocalDateTime start, LocalDateTime end);
     long countByDoctorAndAppointmentDateTimeBetween(User doctor, LocalDateTime start, LocalDateTime end);
     
@@ -27,6 +35,42 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     // Methods for system reports
     List<Appointment> findByStatus(Appointment.Status status);
     long countByStatus(Appointment.Status status);
+    long countByDoctor(User doctor);
     long countByAppointmentDateTimeBetween(LocalDateTime start, LocalDateTime end);
     List<Appointment> findByAppointmentDateTimeBetween(LocalDateTime start, LocalDateTime end);
+    
+    // Dashboard metrics rebuild: rows of (doctorId, status, count) and (doctorId, appointmentDateTime)
+    @Query("SELECT a.doctor.id, a.status, COUNT(a) FROM Appointment a GROUP BY a.doctor.id, a.status")
+    List<Object[]> countGroupedByDoctorAndStatus();
+    
+    @Query("SELECT a.doctor.id, a.appointmentDateTime FROM Appointment a WHERE a.appointmentDateTime >= :from")
+    List<Object[]> findDoctorSlotsFrom(@Param("from") LocalDateTime from);
+    
+    // Slot index load: rows of (id, appointmentDateTime) for one doctor's bookings that still hold their slot
+    @Query("SELECT a.id, a.appointmentDateTime FROM Appointment a WHERE a.doctor.id = :doctorId " +
+           "AND a.appointmentDateTime >= :from AND a.status NOT IN :released")
+    List<Object[]> findSlotsByDoctorFrom(@Param("doctorId") Long doctorId, @Param("from") LocalDateTime from,
+                                         @Param("released") Collection<Appointment.Status> released);
+    
+    @Query("SELECT a.status, COUNT(a) FROM Appointment a GROUP BY a.status")
+    List<Object[]> countGroupedByStatus();
+    
+    // Forward-only cursors for exports
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @EntityGraph("Appointment.withParticipants")
+    @Query("SELECT a FROM Appointment a ORDER BY a.appointmentDateTime ASC")
+    Stream<Appointment> streamAll();
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @EntityGraph("Appointment.withParticipants")
+    @Query("SELECT a FROM Appointment a WHERE a.doctor = :doctor ORDER BY a.appointmentDateTime ASC")
+    Stream<Appointment> streamByDoctor(@Param("doctor") User doctor);
 }
\ No newline at end of file
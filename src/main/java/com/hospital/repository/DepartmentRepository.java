@@ -2,8 +2,10 @@ package com.hospital.repository;
 
 import com.hospital.model.Department;
 import com.hospital.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,9 +18,28 @@ public interface DepartmentRepository extends JpaRepository<Department, Long> {
     List<Department> findByHeadOfDepartment(User headOfDepartment);
     boolean existsByName(String name);
     
+    @EntityGraph("Department.withHead")
     @Query("SELECT d FROM Department d ORDER BY d.name ASC")
     List<Department> findAllOrderByName();
     
     @Query("SELECT COUNT(u) FROM User u WHERE u.department = :department AND u.role = 'DOCTOR'")
     long countDoctorsByDepartment(Department department);
-}
\ No newline at end of file
+    
+    // One row per department with its head and doctor/room counts; the subqueries are served by the FK indexes
+    @Query("SELECT d.id AS id, d.name AS name, d.status AS status, " +
+           "h.firstName AS headFirstName, h.lastName AS headLastName, " +
+           "(SELECT COUNT(u) FROM User u WHERE u.department = d AND u.role = :doctorRole) AS doctorCount, " +
+           "(SELECT COUNT(r) FROM Room r WHERE r.department = d) AS roomCount " +
+           "FROM Department d LEFT JOIN d.headOfDepartment h ORDER BY d.name ASC")
+    List<DepartmentSummary> findDepartmentSummaries(@Param("doctorRole") User.Role doctorRole);
+    
+    interface DepartmentSummary {
+        Long getId();
+        String getName();
+        Department.DepartmentStatus getStatus();
+        String getHeadFirstName();
+        String getHeadLastName();
+        long getDoctorCount();
+        long getRoomCount();
+    }
+}
@@ -3,16 +3,45 @@ package com.hospital.repository;
 import com.hospital.model.MedicalRecord;
 import com.hospital.model.Patient;
 import com.hospital.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MedicalRecordRepository extends JpaRepository<MedicalRecord, Long> {
+    @Override
+    @EntityGraph("MedicalRecord.detail")
+    Optional<MedicalRecord> findById(Long id);
+    
+    @EntityGraph("MedicalRecord.withParticipants")
     List<MedicalRecord> findByPatientOrderByRecordDateDesc(Patient patient);
+    @EntityGraph("MedicalRecord.withParticipants")
     List<MedicalRecord> findByDoctorOrderByRecordDateDesc(User doctor);
+    @EntityGraph("MedicalRecord.withParticipants")
     List<MedicalRecord> findByPatientAndDoctorOrderByRecordDateDesc(Patient patient, User doctor);
     long countByDoctor(User doctor);
     long countByPatient(Patient patient);
+    
+    // Dashboard metrics rebuild: rows of (doctorId, count)
+    @Query("SELECT m.doctor.id, COUNT(m) FROM MedicalRecord m GROUP BY m.doctor.id")
+    List<Object[]> countGroupedByDoctor();
+    
+    // Forward-only cursor for exports
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @EntityGraph("MedicalRecord.withParticipants")
+    @Query("SELECT m FROM MedicalRecord m WHERE m.doctor = :doctor ORDER BY m.recordDate DESC")
+    Stream<MedicalRecord> streamByDoctor(@Param("doctor") User doctor);
 }
\ No newline at end of file
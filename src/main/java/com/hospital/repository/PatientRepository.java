@@ -2,26 +2,46 @@ package com.hospital.repository;
 
 import com.hospital.model.Patient;
 import com.hospital.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
+    @Override
+    @EntityGraph("Patient.withDoctor")
+    List<Patient> findAllById(Iterable<Long> ids);
+    
     List<Patient> findByDoctor(User doctor);
     List<Patient> findByDoctorOrderByLastNameAsc(User doctor);
     boolean existsByEmail(String email);
+
+    // Department of the patient's doctor, used to rank beds during allocation
+    @Query("SELECT d.department.id FROM Patient p JOIN p.doctor d WHERE p.id = :patientId")
+    Long findDoctorDepartmentId(@Param("patientId") Long patientId);
+    
+    // Lower-cased, for duplicate detection during bulk imports
+    @Query("SELECT LOWER(p.email) FROM Patient p")
+    List<String> findAllEmails();
     boolean existsByPatientId(String patientId);
     long countByDoctor(User doctor);
     
     Optional<Patient> findByPatientId(String patientId);
     
-    // Search functionality
+    // Search functionality; used only while the in-memory search index is still warming up
     @Query("SELECT p FROM Patient p WHERE " +
            "LOWER(p.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(p.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -30,6 +50,23 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
            "LOWER(p.patientId) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     List<Patient> searchPatients(@Param("searchTerm") String searchTerm);
     
+    // Keyset pagination over (lastName, id), served by idx_patients_last_name_id
+    @EntityGraph("Patient.withDoctor")
+    @Query("SELECT p FROM Patient p ORDER BY p.lastName ASC, p.id ASC")
+    List<Patient> findFirstPage(Pageable pageable);
+    
+    @EntityGraph("Patient.withDoctor")
+    @Query("SELECT p FROM Patient p WHERE (p.lastName, p.id) > (:lastName, :id) ORDER BY p.lastName ASC, p.id ASC")
+    List<Patient> findPageAfter(@Param("lastName") String lastName, @Param("id") Long id, Pageable pageable);
+    
+    // Walks backwards from the cursor; callers reverse the result
+    @EntityGraph("Patient.withDoctor")
+    @Query("SELECT p FROM Patient p WHERE (p.lastName, p.id) < (:lastName, :id) ORDER BY p.lastName DESC, p.id DESC")
+    List<Patient> findPageBefore(@Param("lastName") String lastName, @Param("id") Long id, Pageable pageable);
+    
+    @EntityGraph("Patient.withDoctor")
+    List<Patient> findAllByOrderByLastNameAscIdAsc();
+    
     // Filter by status
     List<Patient> findByStatus(Patient.PatientStatus status);
     List<Patient> findByStatusOrderByLastNameAsc(Patient.PatientStatus status);
@@ -63,11 +100,73 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
         @Param("doctor") User doctor
     );
     
+    // Filters applied to a batch of ids produced by the patient search index
+    @EntityGraph("Patient.withDoctor")
+    @Query("SELECT p FROM Patient p WHERE p.id IN :ids AND " +
+           "(:status IS NULL OR p.status = :status) AND " +
+           "(:gender IS NULL OR p.gender = :gender) AND " +
+           "(:bloodGroup IS NULL OR p.bloodGroup = :bloodGroup) AND " +
+           "(:doctor IS NULL OR p.doctor = :doctor)")
+    List<Patient> findPatientsWithFiltersByIds(
+        @Param("ids") Collection<Long> ids,
+        @Param("status") Patient.PatientStatus status,
+        @Param("gender") Patient.Gender gender,
+        @Param("bloodGroup") Patient.BloodGroup bloodGroup,
+        @Param("doctor") User doctor
+    );
+    
     // Statistics
     long countByStatus(Patient.PatientStatus status);
     long countByGender(Patient.Gender gender);
     long countByBloodGroup(Patient.BloodGroup bloodGroup);
     
+    // Every patient management counter in one scan; COALESCE covers SUM over an empty table
+    @Query("SELECT COUNT(p) AS totalPatients, " +
+           "COALESCE(SUM(CASE WHEN p.status = :active THEN 1 ELSE 0 END), 0) AS activePatients, " +
+           "COALESCE(SUM(CASE WHEN p.status = :inactive THEN 1 ELSE 0 END), 0) AS inactivePatients, " +
+           "COALESCE(SUM(CASE WHEN p.status = :discharged THEN 1 ELSE 0 END), 0) AS dischargedPatients, " +
+           "COALESCE(SUM(CASE WHEN p.gender = :male THEN 1 ELSE 0 END), 0) AS malePatients, " +
+           "COALESCE(SUM(CASE WHEN p.gender = :female THEN 1 ELSE 0 END), 0) AS femalePatients, " +
+           "COALESCE(SUM(CASE WHEN p.registrationDate >= :today THEN 1 ELSE 0 END), 0) AS newPatientsToday, " +
+           "COALESCE(SUM(CASE WHEN p.registrationDate >= :weekStart THEN 1 ELSE 0 END), 0) AS newPatientsThisWeek, " +
+           "COALESCE(SUM(CASE WHEN p.registrationDate >= :monthStart THEN 1 ELSE 0 END), 0) AS newPatientsThisMonth " +
+           "FROM Patient p")
+    PatientStatistics getStatistics(
+        @Param("active") Patient.PatientStatus active,
+        @Param("inactive") Patient.PatientStatus inactive,
+        @Param("discharged") Patient.PatientStatus discharged,
+        @Param("male") Patient.Gender male,
+        @Param("female") Patient.Gender female,
+        @Param("today") LocalDateTime today,
+        @Param("weekStart") LocalDateTime weekStart,
+        @Param("monthStart") LocalDateTime monthStart
+    );
+    
+    interface PatientStatistics {
+        long getTotalPatients();
+        long getActivePatients();
+        long getInactivePatients();
+        long getDischargedPatients();
+        long getMalePatients();
+        long getFemalePatients();
+        long getNewPatientsToday();
+        long getNewPatientsThisWeek();
+        long getNewPatientsThisMonth();
+    }
+    
     @Query("SELECT COUNT(p) FROM Patient p WHERE p.registrationDate >= :date")
     long countNewPatientsFromDate(@Param("date") LocalDate date);
+    
+    // Dashboard metrics rebuild: rows of (doctorId, status, count)
+    @Query("SELECT p.doctor.id, p.status, COUNT(p) FROM Patient p GROUP BY p.doctor.id, p.status")
+    List<Object[]> countGroupedByDoctorAndStatus();
+    
+    // Forward-only cursor for exports
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p FROM Patient p ORDER BY p.id ASC")
+    Stream<Patient> streamAll();
 }
\ No newline at end of file
@@ -3,18 +3,48 @@ package com.hospital.repository;
 import com.hospital.model.Prescription;
 import com.hospital.model.Patient;
 import com.hospital.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
+    @Override
+    @EntityGraph("Prescription.detail")
+    Optional<Prescription> findById(Long id);
+    
+    @EntityGraph("Prescription.withParticipants")
     List<Prescription> findByPatientOrderByPrescriptionDateDesc(Patient patient);
+    @EntityGraph("Prescription.withParticipants")
     List<Prescription> findByDoctorOrderByPrescriptionDateDesc(User doctor);
+    @EntityGraph("Prescription.withParticipants")
     List<Prescription> findByPatientAndDoctorOrderByPrescriptionDateDesc(Patient patient, User doctor);
     List<Prescription> findByStatusOrderByPrescriptionDateDesc(Prescription.PrescriptionStatus status);
     long countByDoctor(User doctor);
     long countByPatient(Patient patient);
     long countByDoctorAndStatus(User doctor, Prescription.PrescriptionStatus status);
+    long countByStatus(Prescription.PrescriptionStatus status);
+    
+    // Dashboard metrics rebuild: rows of (doctorId, status, count)
+    @Query("SELECT p.doctor.id, p.status, COUNT(p) FROM Prescription p GROUP BY p.doctor.id, p.status")
+    List<Object[]> countGroupedByDoctorAndStatus();
+    
+    // Forward-only cursor for exports
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @EntityGraph("Prescription.withParticipants")
+    @Query("SELECT p FROM Prescription p WHERE p.doctor = :doctor ORDER BY p.prescriptionDate DESC")
+    Stream<Prescription> streamByDoctor(@Param("doctor") User doctor);
 }
\ No newline at end of file
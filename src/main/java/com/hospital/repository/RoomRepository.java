@@ -2,6 +2,7 @@ package com.hospital.repository;
 
 import com.hospital.model.Room;
 import com.hospital.model.Department;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -18,7 +19,9 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     List<Room> findByFloor(String floor);
     List<Room> findByBuilding(String building);
     boolean existsByRoomNumber(String roomNumber);
+    boolean existsByCurrentPatientId(Long patientId);
     
+    @EntityGraph("Room.withDepartment")
     @Query("SELECT r FROM Room r ORDER BY r.building ASC, r.floor ASC, r.roomNumber ASC")
     List<Room> findAllOrderByLocation();
     
@@ -30,4 +33,11 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     
     @Query("SELECT COUNT(r) FROM Room r WHERE r.department = :department")
     long countByDepartment(Department department);
+    
+    // Dashboard metrics rebuild: rows of (status, count)
+    @Query("SELECT r.status, COUNT(r) FROM Room r GROUP BY r.status")
+    List<Object[]> countGroupedByStatus();
+    
+    @Query("SELECT r.roomType, COUNT(r) FROM Room r GROUP BY r.roomType")
+    List<Object[]> countGroupedByRoomType();
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.hospital.repository;
+
+import com.hospital.model.SettingsRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface SettingsRevisionRepository extends JpaRepository<SettingsRevision, Long> {
+    Optional<SettingsRevision> findTopByOrderByVersionDesc();
+    
+    // Plain INSERT rather than save(): the version is assigned by us, and save() would merge over an existing
+    // row with that version. A duplicate version fails with DataIntegrityViolationException instead.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO settings_revisions (version, settings, created_date) VALUES (:version, :settings, :createdDate)",
+           nativeQuery = true)
+    int insert(@Param("version") Long version, @Param("settings") String settings,
+               @Param("createdDate") LocalDateTime createdDate);
+}
@@ -1,15 +1,44 @@
 package com.hospital.repository;
 
 import com.hospital.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @Override
+    @EntityGraph("User.withDepartment")
+    java.util.List<User> findAll();
+    
+    @EntityGraph("User.withDepartment")
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     long countByRole(User.Role role);
+    @EntityGraph("User.withDepartment")
     java.util.List<User> findByRole(User.Role role);
+    java.util.List<User> findByRoleAndDepartmentAndStatus(User.Role role, com.hospital.model.Department department,
+                                                           User.UserStatus status);
+    
+    // Dashboard metrics rebuild: rows of (role, count)
+    @Query("SELECT u.role, COUNT(u) FROM User u GROUP BY u.role")
+    java.util.List<Object[]> countGroupedByRole();
+    
+    // System report aggregates
+    @Query("SELECT u.status, COUNT(u) FROM User u GROUP BY u.status")
+    java.util.List<Object[]> countGroupedByStatus();
+    
+    long countByCreatedDateAfter(java.time.LocalDateTime date);
+    
+    // Rehash on login: touches only the password column, not the rest of the entity
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.hospital.service;
+
+import com.hospital.model.Appointment;
+
+import java.time.LocalDateTime;
+
+// Published after an appointment has been saved or deleted; status is null for a deletion
+public record AppointmentChangedEvent(Long appointmentId, Long doctorId, LocalDateTime appointmentDateTime,
+                                      Appointment.Status status, boolean deleted) {
+
+    public static AppointmentChangedEvent saved(Appointment appointment) {
+        return new AppointmentChangedEvent(appointment.getId(), appointment.getDoctor().getId(),
+            appointment.getAppointmentDateTime(), appointment.getStatus(), false);
+    }
+
+    public static AppointmentChangedEvent deleted(Appointment appointment) {
+        return new AppointmentChangedEvent(appointment.getId(), appointment.getDoctor().getId(),
+            appointment.getAppointmentDateTime(), null, true);
+    }
+}
@@ -5,11 +5,16 @@ import com.hospital.model.User;
 import com.hospital.model.Patient;
 import com.hospital.repository.AppointmentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class AppointmentService {
@@ -17,8 +22,49 @@ public class AppointmentService {
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private EntityStreamSupport entityStreamSupport;
+
+    @Autowired
+    private AppointmentSlotIndex appointmentSlotIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Claims the slot in the doctor's calendar first, so overlapping bookings fail before reaching the database
     public Appointment saveAppointment(Appointment appointment) {
-        return appointmentRepository.save(appointment);
+        if (!AppointmentSlotIndex.holdsSlot(appointment.getStatus())) {
+            Appointment saved = appointmentRepository.save(appointment);
+            appointmentSlotIndex.remove(saved);
+            eventPublisher.publishEvent(AppointmentChangedEvent.saved(saved));
+            return saved;
+        }
+        
+        Long doctorId = appointment.getDoctor().getId();
+        LocalDateTime start = appointment.getAppointmentDateTime();
+        long token = appointmentSlotIndex.reserve(doctorId, start, appointment.getId());
+        Appointment saved;
+        try {
+            saved = appointmentRepository.save(appointment);
+            appointmentSlotIndex.confirm(saved, token);
+        } catch (RuntimeException e) {
+            appointmentSlotIndex.release(doctorId, start, token);
+            throw e;
+        }
+        eventPublisher.publishEvent(AppointmentChangedEvent.saved(saved));
+        return saved;
+    }
+    
+    public boolean isSlotFree(User doctor, LocalDateTime start) {
+        return appointmentSlotIndex.isFree(doctor.getId(), start);
+    }
+    
+    public List<LocalDateTime> findNextFreeSlots(User doctor, LocalDateTime from, int count) {
+        return appointmentSlotIndex.nextFreeSlots(doctor.getId(), from, count);
+    }
+    
+    public SortedMap<LocalDateTime, Long> getDayView(User doctor, LocalDate date) {
+        return appointmentSlotIndex.dayView(doctor.getId(), date);
     }
 
     public Appointment findById(Long id) {
@@ -50,7 +96,11 @@ public class AppointmentService {
     }
 
     public void deleteAppointment(Long id) {
-        appointmentRepository.deleteById(id);
+        appointmentRepository.findById(id).ifPresent(appointment -> {
+            appointmentRepository.delete(appointment);
+            appointmentSlotIndex.remove(appointment);
+            eventPublisher.publishEvent(AppointmentChangedEvent.deleted(appointment));
+        });
     }
     
     // Methods for system reports
@@ -73,4 +123,27 @@ public class AppointmentService {
     public List<Appointment> findAll() {
         return appointmentRepository.findAll();
     }
+    
+    public long countAll() {
+        return appointmentRepository.count();
+    }
+    
+    public long countByDoctor(User doctor) {
+        return appointmentRepository.countByDoctor(doctor);
+    }
+    
+    // Cursor-backed streams for exports; the consumer runs inside the read-only transaction
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Iterable<Appointment>> consumer) {
+        try (Stream<Appointment> appointments = appointmentRepository.streamAll()) {
+            consumer.accept(entityStreamSupport.clearing(appointments));
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public void streamByDoctor(User doctor, Consumer<Iterable<Appointment>> consumer) {
+        try (Stream<Appointment> appointments = appointmentRepository.streamByDoctor(doctor)) {
+            consumer.accept(entityStreamSupport.clearing(appointments));
+        }
+    }
 }
\ No newline at end of file
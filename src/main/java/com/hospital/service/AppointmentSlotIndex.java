@@ -0,0 +1,275 @@
+package com.hospital.service;
+
+import com.hospital.model.Appointment;
+import com.hospital.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory calendar of booked slots per doctor, loaded on first use from today onwards.
+// Every appointment occupies one slot of hospital.appointments.slot-minutes starting at its date time.
+// Reads go straight to the skip list; bookings for one doctor are serialized on that doctor's calendar.
+@Component
+public class AppointmentSlotIndex {
+
+    private static final DateTimeFormatter SLOT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${hospital.appointments.slot-minutes:30}")
+    private int slotMinutes;
+
+    private LocalTime dayStart;
+    private LocalTime dayEnd;
+
+    private final Map<Long, DoctorCalendar> calendars = new ConcurrentHashMap<>();
+
+    // Pending reservations are keyed by negative tokens until the row has an id
+    private final AtomicLong reservationTokens = new AtomicLong();
+
+    @Value("${hospital.appointments.day-start:09:00}")
+    void setDayStart(String dayStart) {
+        this.dayStart = LocalTime.parse(dayStart);
+    }
+
+    @Value("${hospital.appointments.day-end:17:00}")
+    void setDayEnd(String dayEnd) {
+        this.dayEnd = LocalTime.parse(dayEnd);
+    }
+
+    public static boolean holdsSlot(Appointment.Status status) {
+        return status != Appointment.Status.CANCELLED && status != Appointment.Status.NO_SHOW;
+    }
+
+    public boolean isFree(Long doctorId, LocalDateTime start) {
+        return conflict(calendar(doctorId), start, null) == null;
+    }
+
+    // Walks the working-hours slot grid from the given time, skipping booked slots
+    public List<LocalDateTime> nextFreeSlots(Long doctorId, LocalDateTime from, int count) {
+        DoctorCalendar calendar = calendar(doctorId);
+        List<LocalDateTime> free = new ArrayList<>(count);
+        LocalDateTime candidate = firstSlotAtOrAfter(from.isBefore(calendar.horizon) ? calendar.horizon : from);
+        while (free.size() < count) {
+            if (conflict(calendar, candidate, null) == null) {
+                free.add(candidate);
+            }
+            candidate = firstSlotAtOrAfter(candidate.plusMinutes(slotMinutes));
+        }
+        return free;
+    }
+
+    // Booked start times of one day mapped to appointment ids
+    public SortedMap<LocalDateTime, Long> dayView(Long doctorId, LocalDate date) {
+        SortedMap<LocalDateTime, Long> day = new TreeMap<>();
+        calendar(doctorId).starts.subMap(date.atStartOfDay(), date.plusDays(1).atStartOfDay())
+            .forEach((start, id) -> {
+                if (id > 0) {
+                    day.put(start, id);
+                }
+            });
+        return Collections.unmodifiableSortedMap(day);
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    // Working-hours grid used by occupancy(): slotsPerDay() bits per day, day after day
+    public int slotsPerDay() {
+        return (int) (Duration.between(dayStart, dayEnd).toMinutes() / slotMinutes);
+    }
+
+    public LocalDateTime slotStart(LocalDate from, int bucket) {
+        int perDay = slotsPerDay();
+        return from.plusDays(bucket / perDay).atTime(dayStart).plusMinutes((long) (bucket % perDay) * slotMinutes);
+    }
+
+    // One bit per grid slot for the days from..to inclusive, set where a booking overlaps the slot
+    public BitSet occupancy(Long doctorId, LocalDate from, LocalDate to) {
+        DoctorCalendar calendar = calendar(doctorId);
+        int perDay = slotsPerDay();
+        BitSet occupied = new BitSet((int) (ChronoUnit.DAYS.between(from, to) + 1) * perDay);
+        for (LocalDateTime booked : calendar.starts.subMap(from.atStartOfDay(), to.plusDays(1).atStartOfDay()).keySet()) {
+            int day = (int) ChronoUnit.DAYS.between(from, booked.toLocalDate());
+            long minutes = Duration.between(dayStart, booked.toLocalTime()).toMinutes();
+            // An unaligned booking straddles two grid slots
+            long first = Math.max(0, Math.floorDiv(minutes, slotMinutes));
+            long last = Math.min(perDay - 1, Math.floorDiv(minutes + slotMinutes - 1, slotMinutes));
+            if (first <= last) {
+                occupied.set(day * perDay + (int) first, day * perDay + (int) last + 1);
+            }
+        }
+        return occupied;
+    }
+
+    // Holds the slot for an appointment about to be saved; throws if another appointment overlaps it
+    long reserve(Long doctorId, LocalDateTime start, Long appointmentId) {
+        DoctorCalendar calendar = calendar(doctorId);
+        if (start.isBefore(calendar.horizon)) {
+            if (appointmentId != null) {
+                return 0; // updates to past appointments are outside the calendar
+            }
+            throw new IllegalArgumentException("Appointments cannot be booked before today");
+        }
+        synchronized (calendar) {
+            LocalDateTime taken = conflict(calendar, start, appointmentId);
+            if (taken != null) {
+                throw new IllegalStateException("The doctor already has an appointment at " + taken.format(SLOT_FORMATTER));
+            }
+            if (appointmentId != null && appointmentId.equals(calendar.starts.get(start))) {
+                return 0; // unchanged time, the saved row already holds the slot
+            }
+            long token = -reservationTokens.incrementAndGet();
+            calendar.starts.put(start, token);
+            return token;
+        }
+    }
+
+    // Swaps the pending reservation for the saved row, dropping the slot it held before a reschedule
+    void confirm(Appointment appointment, long token) {
+        DoctorCalendar calendar = calendar(appointment.getDoctor().getId());
+        synchronized (calendar) {
+            LocalDateTime previous = calendar.byId.put(appointment.getId(), appointment.getAppointmentDateTime());
+            if (previous != null && !previous.equals(appointment.getAppointmentDateTime())) {
+                calendar.starts.remove(previous, appointment.getId());
+            }
+            calendar.starts.replace(appointment.getAppointmentDateTime(), token, appointment.getId());
+        }
+    }
+
+    void release(Long doctorId, LocalDateTime start, long token) {
+        DoctorCalendar calendar = calendars.get(doctorId);
+        if (calendar != null) {
+            calendar.starts.remove(start, token);
+        }
+    }
+
+    // Frees whatever slot the appointment held. Calendars not in the map yet will read the change from the
+    // database; one being loaded may already have read the row, so the load is told to leave it out.
+    void remove(Appointment appointment) {
+        if (appointment.getId() == null || appointment.getDoctor() == null) {
+            return;
+        }
+        DoctorCalendar calendar = calendars.get(appointment.getDoctor().getId());
+        if (calendar != null) {
+            synchronized (calendar) {
+                if (!calendar.loaded) {
+                    calendar.removedWhileLoading.add(appointment.getId());
+                    return;
+                }
+                LocalDateTime previous = calendar.byId.remove(appointment.getId());
+                if (previous != null) {
+                    calendar.starts.remove(previous, appointment.getId());
+                }
+            }
+        }
+    }
+
+    @Scheduled(cron = "0 10 0 * * *")
+    public void pruneOldDays() {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        for (DoctorCalendar calendar : calendars.values()) {
+            synchronized (calendar) {
+                calendar.horizon = today;
+                calendar.starts.headMap(today).clear();
+                calendar.byId.values().removeIf(start -> start.isBefore(today));
+            }
+        }
+    }
+
+    // Another booking overlaps [start, start + slot) when it starts less than one slot before or after it
+    private LocalDateTime conflict(DoctorCalendar calendar, LocalDateTime start, Long ignoreId) {
+        Duration slot = Duration.ofMinutes(slotMinutes);
+        for (Map.Entry<LocalDateTime, Long> booked
+                : calendar.starts.subMap(start.minus(slot), false, start.plus(slot), false).entrySet()) {
+            if (!booked.getValue().equals(ignoreId)) {
+                return booked.getKey();
+            }
+        }
+        return null;
+    }
+
+    private LocalDateTime firstSlotAtOrAfter(LocalDateTime time) {
+        LocalDate date = time.toLocalDate();
+        LocalTime clock = time.toLocalTime();
+        if (clock.isBefore(dayStart)) {
+            return date.atTime(dayStart);
+        }
+        long minutesIn = Duration.between(dayStart, clock).toMinutes();
+        long aligned = (minutesIn + slotMinutes - 1) / slotMinutes * slotMinutes;
+        LocalDateTime slot = date.atTime(dayStart).plusMinutes(aligned);
+        if (slot.toLocalTime().plusMinutes(slotMinutes).isAfter(dayEnd) || !slot.toLocalDate().equals(date)) {
+            return date.plusDays(1).atTime(dayStart);
+        }
+        return slot;
+    }
+
+    // The calendar goes into the map empty before its rows are read, so remove() can see a load in progress.
+    // Callers for that doctor wait for the load; other doctors are not held up by it.
+    private DoctorCalendar calendar(Long doctorId) {
+        DoctorCalendar calendar = calendars.computeIfAbsent(doctorId,
+            id -> new DoctorCalendar(LocalDate.now().atStartOfDay()));
+        if (!calendar.loaded) {
+            load(doctorId, calendar);
+        }
+        return calendar;
+    }
+
+    private void load(Long doctorId, DoctorCalendar calendar) {
+        synchronized (calendar.loading) {
+            if (calendar.loaded) {
+                return;
+            }
+            List<Appointment.Status> released = List.of(Appointment.Status.CANCELLED, Appointment.Status.NO_SHOW);
+            List<Object[]> rows = appointmentRepository.findSlotsByDoctorFrom(doctorId, calendar.horizon, released);
+            synchronized (calendar) {
+                for (Object[] row : rows) {
+                    Long id = (Long) row[0];
+                    LocalDateTime start = (LocalDateTime) row[1];
+                    if (!calendar.removedWhileLoading.contains(id) && !start.isBefore(calendar.horizon)) {
+                        calendar.starts.put(start, id);
+                        calendar.byId.put(id, start);
+                    }
+                }
+                calendar.removedWhileLoading.clear();
+                calendar.loaded = true;
+            }
+        }
+    }
+
+    private static final class DoctorCalendar {
+        private final ConcurrentSkipListMap<LocalDateTime, Long> starts = new ConcurrentSkipListMap<>();
+        private final Map<Long, LocalDateTime> byId = new ConcurrentHashMap<>();
+        private volatile LocalDateTime horizon;
+        // Held while the rows are read; removals arriving meanwhile are recorded under the calendar's own monitor
+        private final Object loading = new Object();
+        private final Set<Long> removedWhileLoading = new HashSet<>();
+        private volatile boolean loaded;
+
+        private DoctorCalendar(LocalDateTime horizon) {
+            this.horizon = horizon;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.hospital.service;
+
+import com.hospital.model.Room;
+import com.hospital.repository.PatientRepository;
+import com.hospital.repository.RoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Pools of available rooms per (department, room type). A room is claimed by removing it from its pool,
+// which only one caller can do, and then persisted under the Room @Version with a bounded retry.
+// The database row stays the source of truth: a claimed room that is no longer AVAILABLE there is dropped.
+@Component
+public class BedAllocationEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(BedAllocationEngine.class);
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private Map<String, BedScoringPolicy> scoringPolicies;
+
+    @Value("${hospital.beds.scoring-policy:defaultBedScoringPolicy}")
+    private String scoringPolicyName;
+
+    @Value("${hospital.beds.max-attempts:5}")
+    private int maxAttempts;
+
+    private volatile Map<PoolKey, Map<Long, BedScoringPolicy.BedCandidate>> pools = new ConcurrentHashMap<>();
+
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder allocationNanos = new LongAdder();
+    private final LongAdder claimConflicts = new LongAdder();
+    private final LongAdder optimisticRetries = new LongAdder();
+    private final LongAdder staleRooms = new LongAdder();
+    private final LongAdder noRoomAvailable = new LongAdder();
+
+    private record PoolKey(Long departmentId, Room.RoomType roomType) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${hospital.beds.pool-rebuild-interval-ms:300000}",
+               fixedDelayString = "${hospital.beds.pool-rebuild-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Map<PoolKey, Map<Long, BedScoringPolicy.BedCandidate>> rebuilt = new ConcurrentHashMap<>();
+        List<Room> available = roomRepository.findByStatus(Room.RoomStatus.AVAILABLE);
+        for (Room room : available) {
+            BedScoringPolicy.BedCandidate bed = BedScoringPolicy.BedCandidate.of(room);
+            rebuilt.computeIfAbsent(keyOf(bed), key -> new ConcurrentHashMap<>()).put(bed.roomId(), bed);
+        }
+        pools = rebuilt;
+        log.debug("Rebuilt bed pools with {} available rooms", available.size());
+    }
+
+    // Mirrors a saved room into the pools: AVAILABLE rooms are offered, anything else is withdrawn
+    public void sync(Room room) {
+        remove(room.getId());
+        if (room.getStatus() == Room.RoomStatus.AVAILABLE) {
+            BedScoringPolicy.BedCandidate bed = BedScoringPolicy.BedCandidate.of(room);
+            pools.computeIfAbsent(keyOf(bed), key -> new ConcurrentHashMap<>()).put(bed.roomId(), bed);
+        }
+    }
+
+    public void remove(Long roomId) {
+        for (Map<Long, BedScoringPolicy.BedCandidate> pool : pools.values()) {
+            pool.remove(roomId);
+        }
+    }
+
+    // Best room of the given type for the patient, optionally limited to one department; null when none is free
+    public Room allocateBest(Long patientId, Room.RoomType roomType, Long departmentId) {
+        long start = System.nanoTime();
+        checkNotAdmitted(patientId);
+        BedScoringPolicy.BedRequest request = new BedScoringPolicy.BedRequest(
+            patientId, roomType, departmentId, patientRepository.findDoctorDepartmentId(patientId));
+        BedScoringPolicy policy = scoringPolicy();
+
+        List<BedScoringPolicy.BedCandidate> ranked = new ArrayList<>();
+        for (Map.Entry<PoolKey, Map<Long, BedScoringPolicy.BedCandidate>> pool : pools.entrySet()) {
+            PoolKey key = pool.getKey();
+            if (key.roomType() == roomType && (departmentId == null || departmentId.equals(key.departmentId()))) {
+                ranked.addAll(pool.getValue().values());
+            }
+        }
+        ranked.sort(Comparator.comparingDouble((BedScoringPolicy.BedCandidate bed) -> policy.score(bed, request))
+            .reversed()
+            .thenComparing(BedScoringPolicy.BedCandidate::roomNumber));
+
+        // Concurrent callers walk the same ranking; whoever loses a room moves on to the next one
+        for (BedScoringPolicy.BedCandidate bed : ranked) {
+            if (!claim(bed)) {
+                claimConflicts.increment();
+                continue;
+            }
+            Room room = occupy(bed, patientId);
+            if (room != null) {
+                allocations.increment();
+                allocationNanos.add(System.nanoTime() - start);
+                return room;
+            }
+        }
+        noRoomAvailable.increment();
+        return null;
+    }
+
+    // Assigns a specific room; null when it is not currently available
+    public Room assign(Long roomId, Long patientId) {
+        long start = System.nanoTime();
+        checkNotAdmitted(patientId);
+        for (Map<Long, BedScoringPolicy.BedCandidate> pool : pools.values()) {
+            BedScoringPolicy.BedCandidate bed = pool.get(roomId);
+            if (bed != null && pool.remove(roomId, bed)) {
+                Room room = occupy(bed, patientId);
+                if (room != null) {
+                    allocations.increment();
+                    allocationNanos.add(System.nanoTime() - start);
+                }
+                return room;
+            }
+        }
+        return null;
+    }
+
+    public Map<String, Object> getStatistics() {
+        long count = allocations.sum();
+        int pooled = 0;
+        for (Map<Long, BedScoringPolicy.BedCandidate> pool : pools.values()) {
+            pooled += pool.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pooledRooms", pooled);
+        stats.put("allocations", count);
+        stats.put("averageAllocationMillis", count > 0 ? allocationNanos.sum() / count / 1_000_000.0 : 0.0);
+        stats.put("claimConflicts", claimConflicts.sum());
+        stats.put("optimisticRetries", optimisticRetries.sum());
+        stats.put("staleRooms", staleRooms.sum());
+        stats.put("noRoomAvailable", noRoomAvailable.sum());
+        return stats;
+    }
+
+    private boolean claim(BedScoringPolicy.BedCandidate bed) {
+        Map<Long, BedScoringPolicy.BedCandidate> pool = pools.get(keyOf(bed));
+        return pool != null && pool.remove(bed.roomId(), bed);
+    }
+
+    // Marks the claimed room occupied; a version conflict re-reads the row and tries again
+    private Room occupy(BedScoringPolicy.BedCandidate bed, Long patientId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Room room = transaction.execute(status -> {
+                    Room current = roomRepository.findById(bed.roomId()).orElse(null);
+                    if (current == null || current.getStatus() != Room.RoomStatus.AVAILABLE) {
+                        return null;
+                    }
+                    current.setStatus(Room.RoomStatus.OCCUPIED);
+                    current.setCurrentPatient(patientRepository.getReferenceById(patientId));
+                    current.setUpdatedDate(LocalDateTime.now());
+                    return roomRepository.saveAndFlush(current);
+                });
+                if (room == null) {
+                    staleRooms.increment();
+                } else {
+                    eventPublisher.publishEvent(RoomStatusChangedEvent.of(room, Room.RoomStatus.AVAILABLE));
+                }
+                return room;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                optimisticRetries.increment();
+                if (attempt >= maxAttempts) {
+                    offer(bed);
+                    return null;
+                }
+            } catch (DataIntegrityViolationException e) {
+                // uk_rooms_current_patient: a concurrent admission put the patient in another room first
+                offer(bed);
+                throw new IllegalStateException("Patient already occupies a room", e);
+            } catch (RuntimeException e) {
+                offer(bed);
+                throw e;
+            }
+        }
+    }
+
+    private void offer(BedScoringPolicy.BedCandidate bed) {
+        pools.computeIfAbsent(keyOf(bed), key -> new ConcurrentHashMap<>()).put(bed.roomId(), bed);
+    }
+
+    // Fast path only; two concurrent admissions can both pass it, and uk_rooms_current_patient rejects the second
+    private void checkNotAdmitted(Long patientId) {
+        if (roomRepository.existsByCurrentPatientId(patientId)) {
+            throw new IllegalStateException("Patient already occupies a room");
+        }
+    }
+
+    private BedScoringPolicy scoringPolicy() {
+        BedScoringPolicy policy = scoringPolicies.get(scoringPolicyName);
+        if (policy == null) {
+            throw new IllegalStateException("Unknown bed scoring policy: " + scoringPolicyName);
+        }
+        return policy;
+    }
+
+    private static PoolKey keyOf(BedScoringPolicy.BedCandidate bed) {
+        return new PoolKey(bed.departmentId(), bed.roomType());
+    }
+}
@@ -0,0 +1,27 @@
+package com.hospital.service;
+
+import com.hospital.model.Room;
+
+import java.time.LocalDateTime;
+
+// Ranks available rooms for an allocation request; the highest score is claimed first.
+// Implementations are Spring beans selected by name with hospital.beds.scoring-policy.
+public interface BedScoringPolicy {
+
+    double score(BedCandidate bed, BedRequest request);
+
+    // Immutable view of an available room as kept in the allocation pools
+    record BedCandidate(Long roomId, String roomNumber, Long departmentId, Room.RoomType roomType,
+                        String floor, Double dailyRate, LocalDateTime lastCleaned) {
+
+        static BedCandidate of(Room room) {
+            return new BedCandidate(room.getId(), room.getRoomNumber(),
+                room.getDepartment() != null ? room.getDepartment().getId() : null,
+                room.getRoomType(), room.getFloor(), room.getDailyRate(), room.getLastCleaned());
+        }
+    }
+
+    // preferredDepartmentId is the department of the patient's doctor, when there is one
+    record BedRequest(Long patientId, Room.RoomType roomType, Long departmentId, Long preferredDepartmentId) {
+    }
+}
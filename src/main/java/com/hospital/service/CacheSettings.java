@@ -0,0 +1,40 @@
+package com.hospital.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// performance.cacheEnabled as a field read on every cached call. When it is off, the patient statistics
+// and the system report are computed per request instead of being served from their snapshots.
+@Component
+public class CacheSettings {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheSettings.class);
+
+    private static final String KEY = "performance.cacheEnabled";
+
+    @Autowired
+    private SystemSettingsService systemSettingsService;
+
+    private volatile boolean enabled = true;
+
+    @PostConstruct
+    public void init() {
+        enabled = systemSettingsService.snapshot().getBoolean(KEY);
+    }
+
+    @EventListener
+    public void onSettingsChanged(SettingsChangedEvent event) {
+        if (event.changedKeys().contains(KEY)) {
+            enabled = event.current().getBoolean(KEY);
+            log.info("Application caches {}", enabled ? "enabled" : "disabled");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
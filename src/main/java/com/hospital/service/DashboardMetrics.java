@@ -0,0 +1,162 @@
+package com.hospital.service;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.Patient;
+import com.hospital.model.Prescription;
+import com.hospital.model.Room;
+import com.hospital.model.User;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Dashboard counters kept in memory: global and per doctor, keyed by the entity status enums.
+// DashboardMetricsListener applies deltas as rows are flushed; DashboardMetricsLoader rebuilds everything from the database.
+@Component
+public class DashboardMetrics {
+
+    static final String PATIENTS = "patients";
+    static final String APPOINTMENTS = "appointments";
+    static final String APPOINTMENT_DAYS = "appointmentDays";
+    static final String PRESCRIPTIONS = "prescriptions";
+    static final String MEDICAL_RECORDS = "medicalRecords";
+    static final String ROOMS = "rooms";
+    static final String USERS = "users";
+
+    // doctorId is null for hospital-wide counters; value is a status/role enum, an appointment day, or null
+    record Key(String metric, Long doctorId, Object value) {
+    }
+
+    private volatile Map<Key, LongAdder> counters = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    // Bumped on every change so pollers can tell whether anything moved since they last looked
+    private final AtomicLong version = new AtomicLong();
+    // Deltas share the read side; replace() takes the write side so none lands in a map being swapped out
+    private final ReentrantReadWriteLock swap = new ReentrantReadWriteLock();
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    // Hospital-wide counts
+    public long count(Patient.PatientStatus status) {
+        return get(new Key(PATIENTS, null, status));
+    }
+
+    public long count(Appointment.Status status) {
+        return get(new Key(APPOINTMENTS, null, status));
+    }
+
+    public long count(Prescription.PrescriptionStatus status) {
+        return get(new Key(PRESCRIPTIONS, null, status));
+    }
+
+    public long count(Room.RoomStatus status) {
+        return get(new Key(ROOMS, null, status));
+    }
+
+    public long count(User.Role role) {
+        return get(new Key(USERS, null, role));
+    }
+
+    public long totalPatients() {
+        return sum(PATIENTS, null, Patient.PatientStatus.values());
+    }
+
+    public long totalRooms() {
+        return sum(ROOMS, null, Room.RoomStatus.values());
+    }
+
+    public long totalUsers() {
+        return sum(USERS, null, User.Role.values());
+    }
+
+    public long totalMedicalRecords() {
+        return get(new Key(MEDICAL_RECORDS, null, null));
+    }
+
+    public long appointmentsOn(LocalDate date) {
+        return get(new Key(APPOINTMENT_DAYS, null, date));
+    }
+
+    // Per-doctor counts
+    public long patientsOf(Long doctorId) {
+        return sum(PATIENTS, doctorId, Patient.PatientStatus.values());
+    }
+
+    public long appointmentsOf(Long doctorId, Appointment.Status status) {
+        return get(new Key(APPOINTMENTS, doctorId, status));
+    }
+
+    public long appointmentsOf(Long doctorId, LocalDate date) {
+        return get(new Key(APPOINTMENT_DAYS, doctorId, date));
+    }
+
+    public long prescriptionsOf(Long doctorId, Prescription.PrescriptionStatus status) {
+        return get(new Key(PRESCRIPTIONS, doctorId, status));
+    }
+
+    public long medicalRecordsOf(Long doctorId) {
+        return get(new Key(MEDICAL_RECORDS, doctorId, null));
+    }
+
+    void apply(List<Key> removed, List<Key> added) {
+        swap.readLock().lock();
+        try {
+            Map<Key, LongAdder> current = counters;
+            if (removed != null) {
+                for (Key key : removed) {
+                    current.computeIfAbsent(key, k -> new LongAdder()).decrement();
+                }
+            }
+            if (added != null) {
+                for (Key key : added) {
+                    current.computeIfAbsent(key, k -> new LongAdder()).increment();
+                }
+            }
+            version.incrementAndGet();
+        } finally {
+            swap.readLock().unlock();
+        }
+    }
+
+    // Swaps in counters computed from the database in one step
+    void replace(Map<Key, LongAdder> rebuilt) {
+        swap.writeLock().lock();
+        try {
+            counters = rebuilt;
+            loaded = true;
+            version.incrementAndGet();
+        } finally {
+            swap.writeLock().unlock();
+        }
+    }
+
+    // Day buckets only matter from today onwards
+    void pruneDaysBefore(LocalDate day) {
+        counters.keySet().removeIf(key -> APPOINTMENT_DAYS.equals(key.metric())
+            && key.value() instanceof LocalDate date && date.isBefore(day));
+    }
+
+    private long get(Key key) {
+        LongAdder adder = counters.get(key);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    private long sum(String metric, Long doctorId, Enum<?>[] values) {
+        long total = 0;
+        for (Enum<?> value : values) {
+            total += get(new Key(metric, doctorId, value));
+        }
+        return total;
+    }
+}
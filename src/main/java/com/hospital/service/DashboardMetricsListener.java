@@ -0,0 +1,142 @@
+package com.hospital.service;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.MedicalRecord;
+import com.hospital.model.Patient;
+import com.hospital.model.Prescription;
+import com.hospital.model.Room;
+import com.hospital.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// Hibernate event listener that turns entity flushes into counter deltas. Updates and deletes carry the
+// state Hibernate loaded, so the keys a row used to contribute are computed from that instead of being
+// remembered on the entity.
+@Component
+public class DashboardMetricsListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    @Autowired
+    private DashboardMetrics dashboardMetrics;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        List<DashboardMetrics.Key> keys = keysOf(event.getEntity(), state(event.getPersister(), event.getState()));
+        if (!keys.isEmpty()) {
+            dashboardMetrics.apply(null, keys);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        // No loaded state (an update without a prior select); the scheduled rebuild corrects the counters
+        if (event.getOldState() == null) {
+            return;
+        }
+        List<DashboardMetrics.Key> previous = keysOf(event.getEntity(), state(event.getPersister(), event.getOldState()));
+        List<DashboardMetrics.Key> keys = keysOf(event.getEntity(), state(event.getPersister(), event.getState()));
+        if (!previous.equals(keys)) {
+            dashboardMetrics.apply(previous, keys);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object[] deleted = event.getDeletedState();
+        List<DashboardMetrics.Key> previous = deleted != null
+            ? keysOf(event.getEntity(), state(event.getPersister(), deleted))
+            : keysOf(event.getEntity(), state(event.getPersister(), event.getPersister().getValues(event.getEntity())));
+        if (!previous.isEmpty()) {
+            dashboardMetrics.apply(previous, null);
+        }
+    }
+
+    // Counters follow flushes, like the JPA callbacks did; a rolled back transaction is healed by the rebuild
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    // Property lookup by name into one of Hibernate's state arrays
+    private static Function<String, Object> state(EntityPersister persister, Object[] values) {
+        String[] names = persister.getPropertyNames();
+        return name -> {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return values[i];
+                }
+            }
+            return null;
+        };
+    }
+
+    static List<DashboardMetrics.Key> keysOf(Object entity, Function<String, Object> property) {
+        List<DashboardMetrics.Key> keys = new ArrayList<>(4);
+        if (entity instanceof Patient) {
+            addStatusKeys(keys, DashboardMetrics.PATIENTS, doctorId(property.apply("doctor")), property.apply("status"));
+        } else if (entity instanceof Appointment) {
+            Long doctorId = doctorId(property.apply("doctor"));
+            addStatusKeys(keys, DashboardMetrics.APPOINTMENTS, doctorId, property.apply("status"));
+            if (property.apply("appointmentDateTime") instanceof LocalDateTime dateTime) {
+                addStatusKeys(keys, DashboardMetrics.APPOINTMENT_DAYS, doctorId, dateTime.toLocalDate());
+            }
+        } else if (entity instanceof Prescription) {
+            addStatusKeys(keys, DashboardMetrics.PRESCRIPTIONS, doctorId(property.apply("doctor")), property.apply("status"));
+        } else if (entity instanceof MedicalRecord) {
+            keys.add(new DashboardMetrics.Key(DashboardMetrics.MEDICAL_RECORDS, null, null));
+            Long doctorId = doctorId(property.apply("doctor"));
+            if (doctorId != null) {
+                keys.add(new DashboardMetrics.Key(DashboardMetrics.MEDICAL_RECORDS, doctorId, null));
+            }
+        } else if (entity instanceof Room) {
+            addStatusKeys(keys, DashboardMetrics.ROOMS, null, property.apply("status"));
+        } else if (entity instanceof User) {
+            addStatusKeys(keys, DashboardMetrics.USERS, null, property.apply("role"));
+        }
+        return keys;
+    }
+
+    // Adds the hospital-wide key and, when the row belongs to a doctor, the per-doctor key
+    private static void addStatusKeys(List<DashboardMetrics.Key> keys, String metric, Long doctorId, Object value) {
+        if (value == null) {
+            return;
+        }
+        keys.add(new DashboardMetrics.Key(metric, null, value));
+        if (doctorId != null) {
+            keys.add(new DashboardMetrics.Key(metric, doctorId, value));
+        }
+    }
+
+    // The doctor is a lazy proxy in loaded state; reading its id does not initialize it
+    private static Long doctorId(Object doctor) {
+        return doctor instanceof User user ? user.getId() : null;
+    }
+}
@@ -0,0 +1,113 @@
+package com.hospital.service;
+
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.MedicalRecordRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.repository.PrescriptionRepository;
+import com.hospital.repository.RoomRepository;
+import com.hospital.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Recomputes the dashboard counters with grouped queries at startup and periodically afterwards.
+// The periodic pass heals drift from changes the entity listener cannot see, such as rolled back flushes.
+@Component
+public class DashboardMetricsLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardMetricsLoader.class);
+
+    @Autowired
+    private DashboardMetrics dashboardMetrics;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${hospital.metrics.rebuild-interval-ms:900000}",
+               fixedDelayString = "${hospital.metrics.rebuild-interval-ms:900000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<DashboardMetrics.Key, LongAdder> counters = new ConcurrentHashMap<>();
+
+        addGrouped(counters, DashboardMetrics.PATIENTS, patientRepository.countGroupedByDoctorAndStatus());
+        addGrouped(counters, DashboardMetrics.APPOINTMENTS, appointmentRepository.countGroupedByDoctorAndStatus());
+        addGrouped(counters, DashboardMetrics.PRESCRIPTIONS, prescriptionRepository.countGroupedByDoctorAndStatus());
+
+        for (Object[] row : medicalRecordRepository.countGroupedByDoctor()) {
+            long count = ((Number) row[1]).longValue();
+            add(counters, new DashboardMetrics.Key(DashboardMetrics.MEDICAL_RECORDS, null, null), count);
+            if (row[0] != null) {
+                add(counters, new DashboardMetrics.Key(DashboardMetrics.MEDICAL_RECORDS, (Long) row[0], null), count);
+            }
+        }
+
+        // Only today and later are ever asked for
+        LocalDate today = LocalDate.now();
+        for (Object[] row : appointmentRepository.findDoctorSlotsFrom(today.atStartOfDay())) {
+            LocalDate day = ((LocalDateTime) row[1]).toLocalDate();
+            add(counters, new DashboardMetrics.Key(DashboardMetrics.APPOINTMENT_DAYS, null, day), 1);
+            add(counters, new DashboardMetrics.Key(DashboardMetrics.APPOINTMENT_DAYS, (Long) row[0], day), 1);
+        }
+
+        for (Object[] row : roomRepository.countGroupedByStatus()) {
+            add(counters, new DashboardMetrics.Key(DashboardMetrics.ROOMS, null, row[0]), ((Number) row[1]).longValue());
+        }
+        for (Object[] row : userRepository.countGroupedByRole()) {
+            add(counters, new DashboardMetrics.Key(DashboardMetrics.USERS, null, row[0]), ((Number) row[1]).longValue());
+        }
+
+        dashboardMetrics.replace(counters);
+        log.debug("Rebuilt {} dashboard counters in {} ms", counters.size(), System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(cron = "0 5 0 * * *")
+    public void pruneOldDays() {
+        dashboardMetrics.pruneDaysBefore(LocalDate.now());
+    }
+
+    // Rows of (doctorId, status, count) feed both the hospital-wide and the per-doctor counter
+    private void addGrouped(Map<DashboardMetrics.Key, LongAdder> counters, String metric, Iterable<Object[]> rows) {
+        for (Object[] row : rows) {
+            if (row[1] == null) {
+                continue;
+            }
+            long count = ((Number) row[2]).longValue();
+            add(counters, new DashboardMetrics.Key(metric, null, row[1]), count);
+            if (row[0] != null) {
+                add(counters, new DashboardMetrics.Key(metric, (Long) row[0], row[1]), count);
+            }
+        }
+    }
+
+    private void add(Map<DashboardMetrics.Key, LongAdder> counters, DashboardMetrics.Key key, long count) {
+        counters.computeIfAbsent(key, k -> new LongAdder()).add(count);
+    }
+}
@@ -0,0 +1,20 @@
+package com.hospital.service;
+
+import org.springframework.stereotype.Component;
+
+// Keeps patients near their doctor's department, then prefers the cheaper room
+@Component("defaultBedScoringPolicy")
+public class DefaultBedScoringPolicy implements BedScoringPolicy {
+
+    @Override
+    public double score(BedCandidate bed, BedRequest request) {
+        double score = 0;
+        if (bed.departmentId() != null && bed.departmentId().equals(request.preferredDepartmentId())) {
+            score += 1000;
+        }
+        if (bed.dailyRate() != null) {
+            score -= bed.dailyRate() / 100;
+        }
+        return score;
+    }
+}
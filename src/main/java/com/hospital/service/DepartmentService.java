@@ -50,6 +50,10 @@ public class DepartmentService {
         return departmentRepository.countDoctorsByDepartment(department);
     }
 
+    public List<DepartmentRepository.DepartmentSummary> getDepartmentSummaries() {
+        return departmentRepository.findDepartmentSummaries(User.Role.DOCTOR);
+    }
+
     public void deleteDepartment(Long id) {
         departmentRepository.deleteById(id);
     }
@@ -0,0 +1,45 @@
+package com.hospital.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Component
+public class EntityStreamSupport {
+
+    // Entities handed out between two persistence context clears
+    public static final int CLEAR_INTERVAL = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Wraps a cursor-backed stream so the first-level cache is cleared every CLEAR_INTERVAL rows.
+    // Must be consumed sequentially inside the transaction that opened the stream.
+    public <T> Iterable<T> clearing(Stream<T> stream) {
+        Iterator<T> delegate = stream.iterator();
+        return () -> new Iterator<T>() {
+            private long returned;
+            private long clearedAt;
+
+            @Override
+            public boolean hasNext() {
+                // Clear before advancing the cursor: every row handed out so far has been consumed
+                if (returned > clearedAt && returned % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                    clearedAt = returned;
+                }
+                return delegate.hasNext();
+            }
+
+            @Override
+            public T next() {
+                T next = delegate.next();
+                returned++;
+                return next;
+            }
+        };
+    }
+}
@@ -0,0 +1,193 @@
+package com.hospital.service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExportJob {
+
+    public enum Target {
+        USERS, PRESCRIPTIONS, MEDICAL_RECORDS, ROOMS, DEPARTMENTS, PATIENTS, APPOINTMENTS, SYSTEM_REPORT;
+
+        // Accepts the same path segments as the synchronous /export endpoints, e.g. "medical-records"
+        public static Target fromPath(String path) {
+            return valueOf(path.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    public enum Format {
+        PDF("pdf", "application/pdf"),
+        EXCEL("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+        CSV("csv", "text/csv");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static Format fromPath(String path) {
+            return valueOf(path.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final Long ownerId;
+    private final Target target;
+    private final Format format;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile long estimatedTotal;
+    private volatile Path file;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+    private volatile long finishedAtMillis;
+
+    public ExportJob(String id, Long ownerId, Target target, Format format) {
+        this.id = id;
+        this.ownerId = ownerId;
+        this.target = target;
+        this.format = format;
+    }
+
+    // Wraps the export rows so every row handed to the writer bumps the progress counter
+    public <T> Iterable<T> track(Iterable<T> rows) {
+        return () -> {
+            Iterator<T> delegate = rows.iterator();
+            return new Iterator<T>() {
+                @Override
+                public boolean hasNext() {
+                    return delegate.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    T row = delegate.next();
+                    rowsWritten.incrementAndGet();
+                    return row;
+                }
+            };
+        };
+    }
+
+    void recordRows(long rows) {
+        rowsWritten.addAndGet(rows);
+    }
+
+    void markRunning(long estimatedTotal) {
+        this.estimatedTotal = estimatedTotal;
+        this.status = Status.RUNNING;
+    }
+
+    void markCompleted(Path file) {
+        this.file = file;
+        finish(Status.COMPLETED);
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        finish(Status.FAILED);
+    }
+
+    private void finish(Status status) {
+        this.finishedAt = LocalDateTime.now();
+        this.finishedAtMillis = System.currentTimeMillis();
+        this.status = status;
+    }
+
+    boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    boolean isExpired(long nowMillis, long ttlMillis) {
+        return isFinished() && nowMillis - finishedAtMillis > ttlMillis;
+    }
+
+    public String getFileName() {
+        return target.name().toLowerCase(Locale.ROOT).replace('_', '-') + "." + format.getExtension();
+    }
+
+    public Map<String, Object> toProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        long written = rowsWritten.get();
+        long total = estimatedTotal;
+        progress.put("jobId", id);
+        progress.put("target", target);
+        progress.put("format", format);
+        progress.put("status", status);
+        progress.put("rowsWritten", written);
+        progress.put("estimatedTotal", total);
+        // Estimates are taken before the cursor opens, so clamp in case rows were added meanwhile
+        int percent = status == Status.COMPLETED ? 100 : total > 0 ? (int) Math.min(99, written * 100 / total) : 0;
+        progress.put("percent", percent);
+        progress.put("createdAt", createdAt);
+        progress.put("finishedAt", finishedAt);
+        if (error != null) {
+            progress.put("error", error);
+        }
+        if (status == Status.COMPLETED) {
+            progress.put("downloadUrl", "/export/jobs/" + id + "/download");
+        }
+        return progress;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public Target getTarget() {
+        return target;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getEstimatedTotal() {
+        return estimatedTotal;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
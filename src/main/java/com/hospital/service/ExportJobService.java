@@ -0,0 +1,256 @@
+package com.hospital.service;
+
+import com.hospital.config.VirtualThreadSupport;
+import com.hospital.model.Appointment;
+import com.hospital.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+@Service
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    // Sections written by the system report, used as its progress total
+    private static final long SYSTEM_REPORT_SECTIONS = 5;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private MedicalRecordService medicalRecordService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SystemReportService systemReportService;
+
+    @Autowired
+    private VirtualThreadSupport virtualThreadSupport;
+
+    @Value("${hospital.export.jobs.threads:2}")
+    private int threads;
+
+    @Value("${hospital.export.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${hospital.export.jobs.max-per-user:2}")
+    private int maxJobsPerUser;
+
+    @Value("${hospital.export.jobs.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${hospital.export.jobs.spool-dir:${java.io.tmpdir}/hospital-exports}")
+    private String spoolDirectory;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    // Queued plus running jobs per user
+    private final Map<Long, AtomicInteger> activeJobsByUser = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+    private Path spoolDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        spoolDir = Files.createDirectories(Paths.get(spoolDirectory));
+        // The pool size still caps concurrent exports in virtual-thread mode; they are memory heavy
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), virtualThreadSupport.threadFactory("export-job"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Same access rules as the synchronous /export endpoints
+    public boolean isAllowed(SessionUser user, ExportJob.Target target) {
+        if (user == null) {
+            return false;
+        }
+        return switch (target) {
+            case USERS, ROOMS, DEPARTMENTS, SYSTEM_REPORT -> user.role() == User.Role.ADMIN;
+            case PRESCRIPTIONS, MEDICAL_RECORDS -> user.role() == User.Role.DOCTOR;
+            case PATIENTS, APPOINTMENTS -> user.role() == User.Role.ADMIN || user.role() == User.Role.DOCTOR;
+        };
+    }
+
+    public ExportJob submit(SessionUser owner, ExportJob.Target target, ExportJob.Format format) {
+        if (target == ExportJob.Target.SYSTEM_REPORT && format != ExportJob.Format.PDF) {
+            throw new IllegalArgumentException("The system report is only available as PDF");
+        }
+
+        AtomicInteger active = activeJobsByUser.computeIfAbsent(owner.id(), id -> new AtomicInteger());
+        if (active.incrementAndGet() > maxJobsPerUser) {
+            active.decrementAndGet();
+            throw new IllegalStateException("You already have " + maxJobsPerUser + " exports in progress");
+        }
+
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), owner.id(), target, format);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, owner, active));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            active.decrementAndGet();
+            throw new IllegalStateException("The export queue is full, please try again later");
+        }
+        return job;
+    }
+
+    public ExportJob getJob(String id, SessionUser user) {
+        ExportJob job = jobs.get(id);
+        if (job == null || user == null || !job.getOwnerId().equals(user.id())) {
+            return null;
+        }
+        return job;
+    }
+
+    public List<ExportJob> getJobs(SessionUser user) {
+        return jobs.values().stream()
+            .filter(job -> job.getOwnerId().equals(user.id()))
+            .sorted(Comparator.comparing(ExportJob::getCreatedAt).reversed())
+            .toList();
+    }
+
+    private void run(ExportJob job, SessionUser owner, AtomicInteger active) {
+        Path file = spoolDir.resolve(job.getId() + "." + job.getFormat().getExtension());
+        try {
+            job.markRunning(estimateTotal(job.getTarget(), owner));
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                write(job, owner, out);
+            }
+            job.markCompleted(file);
+        } catch (Exception e) {
+            log.warn("Export job {} ({} {}) failed", job.getId(), job.getTarget(), job.getFormat(), e);
+            deleteQuietly(file);
+            job.markFailed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    private long estimateTotal(ExportJob.Target target, SessionUser owner) {
+        return switch (target) {
+            case USERS -> userService.getTotalUsers();
+            case PRESCRIPTIONS -> prescriptionService.countByDoctor(userService.getReference(owner.id()));
+            case MEDICAL_RECORDS -> medicalRecordService.countByDoctor(userService.getReference(owner.id()));
+            case ROOMS -> roomService.getTotalRooms();
+            case DEPARTMENTS -> departmentService.getTotalDepartments();
+            case PATIENTS -> patientService.countAll();
+            case APPOINTMENTS -> owner.role() == User.Role.ADMIN
+                ? appointmentService.countAll() : appointmentService.countByDoctor(userService.getReference(owner.id()));
+            case SYSTEM_REPORT -> SYSTEM_REPORT_SECTIONS;
+        };
+    }
+
+    private void write(ExportJob job, SessionUser owner, OutputStream out) {
+        switch (job.getTarget()) {
+            case USERS -> write(job, userService.getAllUsers(), out,
+                exportService::exportUsersToPdf, exportService::exportUsersToExcel, exportService::exportUsersToCSV);
+            case PRESCRIPTIONS -> prescriptionService.streamByDoctor(userService.getReference(owner.id()), prescriptions -> write(job, prescriptions, out,
+                exportService::exportPrescriptionsToPdf, exportService::exportPrescriptionsToExcel, exportService::exportPrescriptionsToCSV));
+            case MEDICAL_RECORDS -> medicalRecordService.streamByDoctor(userService.getReference(owner.id()), records -> write(job, records, out,
+                exportService::exportMedicalRecordsToPdf, exportService::exportMedicalRecordsToExcel, exportService::exportMedicalRecordsToCSV));
+            case ROOMS -> write(job, roomService.findAll(), out,
+                exportService::exportRoomsToPdf, exportService::exportRoomsToExcel, exportService::exportRoomsToCSV);
+            case DEPARTMENTS -> write(job, departmentService.findAll(), out,
+                exportService::exportDepartmentsToPdf, exportService::exportDepartmentsToExcel, exportService::exportDepartmentsToCSV);
+            case PATIENTS -> patientService.streamAll(patients -> write(job, patients, out,
+                exportService::exportPatientsToPdf, exportService::exportPatientsToExcel, exportService::exportPatientsToCSV));
+            case APPOINTMENTS -> {
+                if (owner.role() == User.Role.ADMIN) {
+                    appointmentService.streamAll(appointments -> writeAppointments(job, appointments, out));
+                } else {
+                    appointmentService.streamByDoctor(userService.getReference(owner.id()), appointments -> writeAppointments(job, appointments, out));
+                }
+            }
+            case SYSTEM_REPORT -> {
+                SystemReportSnapshot report = systemReportService.getSnapshot();
+                exportService.exportSystemReportToPdf(report, out);
+                job.recordRows(report.getReport().size());
+            }
+        }
+    }
+
+    private void writeAppointments(ExportJob job, Iterable<Appointment> appointments, OutputStream out) {
+        write(job, appointments, out,
+            exportService::exportAppointmentsToPdf, exportService::exportAppointmentsToExcel, exportService::exportAppointmentsToCSV);
+    }
+
+    private <T> void write(ExportJob job, Iterable<T> rows, OutputStream out,
+                           BiConsumer<Iterable<T>, OutputStream> pdf,
+                           BiConsumer<Iterable<T>, OutputStream> excel,
+                           BiConsumer<Iterable<T>, OutputStream> csv) {
+        Iterable<T> tracked = job.track(rows);
+        switch (job.getFormat()) {
+            case PDF -> pdf.accept(tracked, out);
+            case EXCEL -> excel.accept(tracked, out);
+            case CSV -> csv.accept(tracked, out);
+        }
+    }
+
+    // Drops finished jobs and their spooled files once they outlive the TTL
+    @Scheduled(fixedDelayString = "${hospital.export.jobs.cleanup-interval-ms:60000}")
+    public void expireJobs() {
+        long now = System.currentTimeMillis();
+        long ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        jobs.values().removeIf(job -> {
+            if (!job.isExpired(now, ttlMillis)) {
+                return false;
+            }
+            if (job.getFile() != null) {
+                deleteQuietly(job.getFile());
+            }
+            return true;
+        });
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled export {}", file, e);
+        }
+    }
+}
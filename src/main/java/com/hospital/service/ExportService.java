@@ -2,7 +2,7 @@ package com.hospital.service;
 
 import com.hospital.model.*;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import com.opencsv.CSVWriter;
 import org.springframework.stereotype.Service;
 
@@ -18,11 +18,14 @@ import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.colors.ColorConstants;
 
-import java.io.ByteArrayOutputStream;
-import java.io.StringWriter;
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class ExportService {
@@ -30,10 +33,25 @@ public class ExportService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
+    // Rows kept in memory by the streaming workbook; older rows are flushed to a compressed temp file
+    private static final int EXCEL_ROW_WINDOW = 100;
+    // Leading rows sampled to estimate column widths
+    private static final int EXCEL_WIDTH_SAMPLE_ROWS = 200;
+    private static final int EXCEL_MAX_COLUMN_CHARS = 60;
+
+    private static final String[] USER_HEADERS = {"Name", "Email", "Department", "Role", "Status", "Phone", "Specialization"};
+    private static final String[] PRESCRIPTION_HEADERS = {"Patient", "Doctor", "Medication", "Dosage", "Frequency", "Duration", "Status", "Date", "Instructions"};
+    private static final String[] MEDICAL_RECORD_HEADERS = {"Patient", "Doctor", "Date", "Type", "Chief Complaint", "Diagnosis", "Treatment Plan", "Vital Signs"};
+    private static final String[] ROOM_HEADERS = {"Room Number", "Type", "Status", "Building", "Floor", "Capacity", "Department", "Daily Rate", "Description"};
+    private static final String[] DEPARTMENT_HEADERS = {"Name", "Description", "Status", "Location", "Phone", "Email", "Capacity", "Specialization", "Head of Department"};
+    private static final String[] PATIENT_HEADERS = {"Name", "Date of Birth", "Gender", "Phone", "Email", "Address", "Emergency Contact", "Emergency Phone", "Medical History", "Allergies"};
+    private static final String[] APPOINTMENT_HEADERS = {"Patient", "Doctor", "Date & Time", "Status", "Type", "Notes", "Symptoms", "Diagnosis", "Prescription"};
+
     // PDF Export Methods - Basic implementation
-    public byte[] exportUsersToPdf(List<User> users) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+    public void exportUsersToPdf(Iterable<User> users, OutputStream out) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc);
 
@@ -43,7 +61,9 @@ public class ExportService {
             document.add(new Paragraph(" "));
 
             // Add user data
+            long count = 0;
             for (User user : users) {
+                count++;
                 document.add(new Paragraph(
                     "Name: " + user.getFirstName() + " " + user.getLastName() + 
                     " | Email: " + user.getEmail() + 
@@ -53,18 +73,18 @@ public class ExportService {
             }
 
             document.add(new Paragraph(" "));
-            document.add(new Paragraph("Total Users: " + users.size()).setFontSize(12));
+            document.add(new Paragraph("Total Users: " + count).setFontSize(12));
 
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
         }
     }
 
-    public byte[] exportPrescriptionsToPdf(List<Prescription> prescriptions) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+    public void exportPrescriptionsToPdf(Iterable<Prescription> prescriptions, OutputStream out) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc);
 
@@ -74,7 +94,9 @@ public class ExportService {
             document.add(new Paragraph(" "));
 
             // Add prescription data
+            long count = 0;
             for (Prescription prescription : prescriptions) {
+                count++;
                 document.add(new Paragraph(
                     "Patient: " + prescription.getPatient().getFirstName() + " " + prescription.getPatient().getLastName() + 
                     " | Doctor: " + prescription.getDoctor().getFirstName() + " " + prescription.getDoctor().getLastName() + 
@@ -84,18 +106,18 @@ public class ExportService {
             }
 
             document.add(new Paragraph(" "));
-            document.add(new Paragraph("Total Prescriptions: " + prescriptions.size()).setFontSize(12));
+            document.add(new Paragraph("Total Prescriptions: " + count).setFontSize(12));
 
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
         }
     }
 
-    public byte[] exportMedicalRecordsToPdf(List<MedicalRecord> records) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+    public void exportMedicalRecordsToPdf(Iterable<MedicalRecord> records, OutputStream out) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc);
 
@@ -105,7 +127,9 @@ public class ExportService {
             document.add(new Paragraph(" "));
 
             // Add medical record data
+            long count = 0;
             for (MedicalRecord record : records) {
+                count++;
                 document.add(new Paragraph(
                     "Patient: " + record.getPatient().getFirstName() + " " + record.getPatient().getLastName() + 
                     " | Doctor: " + record.getDoctor().getFirstName() + " " + record.getDoctor().getLastName() + 
@@ -119,548 +143,250 @@ public class ExportService {
             }
 
             document.add(new Paragraph(" "));
-            document.add(new Paragraph("Total Medical Records: " + records.size()).setFontSize(12));
+            document.add(new Paragraph("Total Medical Records: " + count).setFontSize(12));
 
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
         }
     }
 
-    // Excel Export Methods
-    public byte[] exportUsersToExcel(List<User> users) {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Users");
-
-            // Create header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"Name", "Email", "Department", "Role", "Status", "Phone", "Specialization"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Create data rows
-            int rowNum = 1;
-            for (User user : users) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(user.getFirstName() + " " + user.getLastName());
-                row.createCell(1).setCellValue(user.getEmail());
-                row.createCell(2).setCellValue(user.getDepartment() != null ? user.getDepartment().getName() : "N/A");
-                row.createCell(3).setCellValue(user.getRole().toString());
-                row.createCell(4).setCellValue(user.getStatus() != null ? user.getStatus().toString() : "ACTIVE");
-                row.createCell(5).setCellValue(user.getPhoneNumber() != null ? user.getPhoneNumber() : "N/A");
-                row.createCell(6).setCellValue(user.getSpecialization() != null ? user.getSpecialization() : "N/A");
-            }
-
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(baos);
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating Excel", e);
-        }
+    // Excel Export Methods - streamed through a windowed SXSSF workbook so memory stays flat
+    public void exportUsersToExcel(Iterable<User> users, OutputStream out) {
+        writeExcel("Users", USER_HEADERS, users, this::userRow, out);
     }
 
-    public byte[] exportPrescriptionsToExcel(List<Prescription> prescriptions) {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Prescriptions");
-
-            // Create header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"Patient", "Doctor", "Medication", "Dosage", "Frequency", "Duration", "Status", "Date", "Instructions"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Create data rows
-            int rowNum = 1;
-            for (Prescription prescription : prescriptions) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(prescription.getPatient().getFirstName() + " " + prescription.getPatient().getLastName());
-                row.createCell(1).setCellValue(prescription.getDoctor().getFirstName() + " " + prescription.getDoctor().getLastName());
-                row.createCell(2).setCellValue(prescription.getMedicationName() + (prescription.getStrength() != null ? " - " + prescription.getStrength() : ""));
-                row.createCell(3).setCellValue(prescription.getDosage());
-                row.createCell(4).setCellValue(prescription.getFrequency());
-                row.createCell(5).setCellValue(prescription.getDuration() + " days");
-                row.createCell(6).setCellValue(prescription.getStatus().toString());
-                row.createCell(7).setCellValue(prescription.getPrescriptionDate().format(DATETIME_FORMATTER));
-                row.createCell(8).setCellValue(prescription.getInstructions() != null ? prescription.getInstructions() : "N/A");
-            }
-
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(baos);
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating Excel", e);
-        }
+    public void exportPrescriptionsToExcel(Iterable<Prescription> prescriptions, OutputStream out) {
+        writeExcel("Prescriptions", PRESCRIPTION_HEADERS, prescriptions, this::prescriptionRow, out);
     }
 
-    public byte[] exportMedicalRecordsToExcel(List<MedicalRecord> records) {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Medical Records");
-
-            // Create header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"Patient", "Doctor", "Date", "Type", "Chief Complaint", "Diagnosis", "Treatment Plan", "Vital Signs"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Create data rows
-            int rowNum = 1;
-            for (MedicalRecord record : records) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(record.getPatient().getFirstName() + " " + record.getPatient().getLastName());
-                row.createCell(1).setCellValue(record.getDoctor().getFirstName() + " " + record.getDoctor().getLastName());
-                row.createCell(2).setCellValue(record.getRecordDate().format(DATETIME_FORMATTER));
-                row.createCell(3).setCellValue(record.getRecordType().toString());
-                row.createCell(4).setCellValue(record.getChiefComplaint() != null ? record.getChiefComplaint() : "N/A");
-                row.createCell(5).setCellValue(record.getDiagnosis() != null ? record.getDiagnosis() : "N/A");
-                row.createCell(6).setCellValue(record.getTreatmentPlan() != null ? record.getTreatmentPlan() : "N/A");
-                row.createCell(7).setCellValue(record.getVitalSigns() != null ? record.getVitalSigns() : "N/A");
-            }
-
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(baos);
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating Excel", e);
-        }
+    public void exportMedicalRecordsToExcel(Iterable<MedicalRecord> records, OutputStream out) {
+        writeExcel("Medical Records", MEDICAL_RECORD_HEADERS, records, this::medicalRecordRow, out);
     }
 
     // CSV Export Methods
-    public String exportUsersToCSV(List<User> users) {
-        try (StringWriter stringWriter = new StringWriter(); CSVWriter csvWriter = new CSVWriter(stringWriter)) {
-            
-            // Write header
-            String[] headers = {"Name", "Email", "Department", "Role", "Status", "Phone", "Specialization"};
-            csvWriter.writeNext(headers);
-
-            // Write data
-            for (User user : users) {
-                String[] data = {
-                    user.getFirstName() + " " + user.getLastName(),
-                    user.getEmail(),
-                    user.getDepartment() != null ? user.getDepartment().getName() : "N/A",
-                    user.getRole().toString(),
-                    user.getStatus() != null ? user.getStatus().toString() : "ACTIVE",
-                    user.getPhoneNumber() != null ? user.getPhoneNumber() : "N/A",
-                    user.getSpecialization() != null ? user.getSpecialization() : "N/A"
-                };
-                csvWriter.writeNext(data);
-            }
-
-            return stringWriter.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating CSV", e);
-        }
+    public void exportUsersToCSV(Iterable<User> users, OutputStream out) {
+        writeCSV(USER_HEADERS, users, this::userRow, out);
     }
 
-    public String exportPrescriptionsToCSV(List<Prescription> prescriptions) {
-        try (StringWriter stringWriter = new StringWriter(); CSVWriter csvWriter = new CSVWriter(stringWriter)) {
-            
-            // Write header
-            String[] headers = {"Patient", "Doctor", "Medication", "Dosage", "Frequency", "Duration", "Status", "Date", "Instructions"};
-            csvWriter.writeNext(headers);
-
-            // Write data
-            for (Prescription prescription : prescriptions) {
-                String[] data = {
-                    prescription.getPatient().getFirstName() + " " + prescription.getPatient().getLastName(),
-                    prescription.getDoctor().getFirstName() + " " + prescription.getDoctor().getLastName(),
-                    prescription.getMedicationName() + (prescription.getStrength() != null ? " - " + prescription.getStrength() : ""),
-                    prescription.getDosage(),
-                    prescription.getFrequency(),
-                    prescription.getDuration() + " days",
-                    prescription.getStatus().toString(),
-                    prescription.getPrescriptionDate().format(DATETIME_FORMATTER),
-                    prescription.getInstructions() != null ? prescription.getInstructions() : "N/A"
-                };
-                csvWriter.writeNext(data);
-            }
-
-            return stringWriter.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating CSV", e);
-        }
+    public void exportPrescriptionsToCSV(Iterable<Prescription> prescriptions, OutputStream out) {
+        writeCSV(PRESCRIPTION_HEADERS, prescriptions, this::prescriptionRow, out);
     }
 
-    public String exportMedicalRecordsToCSV(List<MedicalRecord> records) {
-        try (StringWriter stringWriter = new StringWriter(); CSVWriter csvWriter = new CSVWriter(stringWriter)) {
-            
-            // Write header
-            String[] headers = {"Patient", "Doctor", "Date", "Type", "Chief Complaint", "Diagnosis", "Treatment Plan", "Vital Signs"};
-            csvWriter.writeNext(headers);
-
-            // Write data
-            for (MedicalRecord record : records) {
-                String[] data = {
-                    record.getPatient().getFirstName() + " " + record.getPatient().getLastName(),
-                    record.getDoctor().getFirstName() + " " + record.getDoctor().getLastName(),
-                    record.getRecordDate().format(DATETIME_FORMATTER),
-                    record.getRecordType().toString(),
-                    record.getChiefComplaint() != null ? record.getChiefComplaint() : "N/A",
-                    record.getDiagnosis() != null ? record.getDiagnosis() : "N/A",
-                    record.getTreatmentPlan() != null ? record.getTreatmentPlan() : "N/A",
-                    record.getVitalSigns() != null ? record.getVitalSigns() : "N/A"
-                };
-                csvWriter.writeNext(data);
-            }
-
-            return stringWriter.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating CSV", e);
-        }
+    public void exportMedicalRecordsToCSV(Iterable<MedicalRecord> records, OutputStream out) {
+        writeCSV(MEDICAL_RECORD_HEADERS, records, this::medicalRecordRow, out);
     }
 
     // Room Export Methods
-    public byte[] exportRoomsToExcel(List<Room> rooms) {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Rooms");
-
-            // Create header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"Room Number", "Type", "Status", "Building", "Floor", "Capacity", "Department", "Daily Rate", "Description"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Create data rows
-            int rowNum = 1;
-            for (Room room : rooms) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(room.getRoomNumber());
-                row.createCell(1).setCellValue(room.getRoomType() != null ? room.getRoomType().toString() : "N/A");
-                row.createCell(2).setCellValue(room.getStatus() != null ? room.getStatus().toString() : "N/A");
-                row.createCell(3).setCellValue(room.getBuilding() != null ? room.getBuilding() : "N/A");
-                row.createCell(4).setCellValue(room.getFloor() != null ? room.getFloor().toString() : "N/A");
-                row.createCell(5).setCellValue(room.getCapacity() != null ? room.getCapacity().toString() : "N/A");
-                row.createCell(6).setCellValue(room.getDepartment() != null ? room.getDepartment().getName() : "N/A");
-                row.createCell(7).setCellValue(room.getDailyRate() != null ? "$" + room.getDailyRate().toString() : "N/A");
-                row.createCell(8).setCellValue(room.getDescription() != null ? room.getDescription() : "N/A");
-            }
-
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            workbook.write(baos);
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating Excel", e);
-        }
+    public void exportRoomsToExcel(Iterable<Room> rooms, OutputStream out) {
+        writeExcel("Rooms", ROOM_HEADERS, rooms, this::roomRow, out);
     }
 
-    public String exportRoomsToCSV(List<Room> rooms) {
-        try (StringWriter stringWriter = new StringWriter(); CSVWriter csvWriter = new CSVWriter(stringWriter)) {
-            
-            // Write header
-            String[] headers = {"Room Number", "Type", "Status", "Building", "Floor", "Capacity", "Department", "Daily Rate", "Description"};
-            csvWriter.writeNext(headers);
-
-            // Write data
-            for (Room room : rooms) {
-                String[] data = {
-                    room.getRoomNumber(),
-                    room.getRoomType() != null ? room.getRoomType().toString() : "N/A",
-                    room.getStatus() != null ? room.getStatus().toString() : "N/A",
-                    room.getBuilding() != null ? room.getBuilding() : "N/A",
-                    room.getFloor() != null ? room.getFloor().toString() : "N/A",
-                    room.getCapacity() != null ? room.getCapacity().toString() : "N/A",
-                    room.getDepartment() != null ? room.getDepartment().getName() : "N/A",
-                    room.getDailyRate() != null ? "$" + room.getDailyRate().toString() : "N/A",
-                    room.getDescription() != null ? room.getDescription() : "N/A"
-                };
-                csvWriter.writeNext(data);
-            }
-
-            return stringWriter.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating CSV", e);
-        }
+    public void exportRoomsToCSV(Iterable<Room> rooms, OutputStream out) {
+        writeCSV(ROOM_HEADERS, rooms, this::roomRow, out);
     }
 
     // Department Export Methods
-    public byte[] exportDepartmentsToExcel(List<Department> departments) {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Departments");
-
-            // Create header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"Name", "Description", "Status", "Location", "Phone", "Email", "Capacity", "Specialization", "Head of Department"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Create data rows
-            int rowNum = 1;
-            for (Department dept : departments) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(dept.getName());
-                row.createCell(1).setCellValue(dept.getDescription() != null ? dept.getDescription() : "N/A");
-                row.createCell(2).setCellValue(dept.getStatus() != null ? dept.getStatus().toString() : "ACTIVE");
-                row.createCell(3).setCellValue(dept.getLocation() != null ? dept.getLocation() : "N/A");
-                row.createCell(4).setCellValue(dept.getPhoneNumber() != null ? dept.getPhoneNumber() : "N/A");
-                row.createCell(5).setCellValue(dept.getEmail() != null ? dept.getEmail() : "N/A");
-                row.createCell(6).setCellValue(dept.getCapacity() != null ? dept.getCapacity().toString() : "N/A");
-                row.createCell(7).setCellValue(dept.getSpecialization() != null ? dept.getSpecialization() : "N/A");
-                row.createCell(8).setCellValue(dept.getHeadOfDepartment() != null ? 
-                    "Dr. " + dept.getHeadOfDepartment().getFirstName() + " " + dept.getHeadOfDepartment().getLastName() : "N/A");
-            }
+    public void exportDepartmentsToExcel(Iterable<Department> departments, OutputStream out) {
+        writeExcel("Departments", DEPARTMENT_HEADERS, departments, this::departmentRow, out);
+    }
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+    public void exportDepartmentsToCSV(Iterable<Department> departments, OutputStream out) {
+        writeCSV(DEPARTMENT_HEADERS, departments, this::departmentRow, out);
+    }
 
-            workbook.write(baos);
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating Excel", e);
-        }
+    // Patient Export Methods
+    public void exportPatientsToExcel(Iterable<Patient> patients, OutputStream out) {
+        writeExcel("Patients", PATIENT_HEADERS, patients, this::patientRow, out);
     }
 
-    public String exportDepartmentsToCSV(List<Department> departments) {
-        try (StringWriter stringWriter = new StringWriter(); CSVWriter csvWriter = new CSVWriter(stringWriter)) {
-            
-            // Write header
-            String[] headers = {"Name", "Description", "Status", "Location", "Phone", "Email", "Capacity", "Specialization", "Head of Department"};
-            csvWriter.writeNext(headers);
+    public void exportPatientsToCSV(Iterable<Patient> patients, OutputStream out) {
+        writeCSV(PATIENT_HEADERS, patients, this::patientRow, out);
+    }
 
-            // Write data
-            for (Department dept : departments) {
-                String[] data = {
-                    dept.getName(),
-                    dept.getDescription() != null ? dept.getDescription() : "N/A",
-                    dept.getStatus() != null ? dept.getStatus().toString() : "ACTIVE",
-                    dept.getLocation() != null ? dept.getLocation() : "N/A",
-                    dept.getPhoneNumber() != null ? dept.getPhoneNumber() : "N/A",
-                    dept.getEmail() != null ? dept.getEmail() : "N/A",
-                    dept.getCapacity() != null ? dept.getCapacity().toString() : "N/A",
-                    dept.getSpecialization() != null ? dept.getSpecialization() : "N/A",
-                    dept.getHeadOfDepartment() != null ? 
-                        "Dr. " + dept.getHeadOfDepartment().getFirstName() + " " + dept.getHeadOfDepartment().getLastName() : "N/A"
-                };
-                csvWriter.writeNext(data);
-            }
+    // Appointment Export Methods
+    public void exportAppointmentsToExcel(Iterable<Appointment> appointments, OutputStream out) {
+        writeExcel("Appointments", APPOINTMENT_HEADERS, appointments, this::appointmentRow, out);
+    }
 
-            return stringWriter.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating CSV", e);
-        }
+    public void exportAppointmentsToCSV(Iterable<Appointment> appointments, OutputStream out) {
+        writeCSV(APPOINTMENT_HEADERS, appointments, this::appointmentRow, out);
     }
 
-    // Patient Export Methods
-    public byte[] exportPatientsToExcel(List<Patient> patients) {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Patients");
-
-            // Create header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"Name", "Date of Birth", "Gender", "Phone", "Email", "Address", "Emergency Contact", "Emergency Phone", "Medical History", "Allergies"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
+    private <T> void writeExcel(String sheetName, String[] headers, Iterable<T> items,
+                                Function<T, String[]> rowMapper, OutputStream out) {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW)) {
+            workbook.setCompressTempFiles(true);
+            try {
+                Sheet sheet = workbook.createSheet(sheetName);
+
+                // Create header style
+                CellStyle headerStyle = workbook.createCellStyle();
+                Font headerFont = workbook.createFont();
+                headerFont.setBold(true);
+                headerStyle.setFont(headerFont);
+
+                // Create header row
+                int[] columnChars = new int[headers.length];
+                Row headerRow = sheet.createRow(0);
+                for (int i = 0; i < headers.length; i++) {
+                    Cell cell = headerRow.createCell(i);
+                    cell.setCellValue(headers[i]);
+                    cell.setCellStyle(headerStyle);
+                    columnChars[i] = headers[i].length();
+                }
 
-            // Create data rows
-            int rowNum = 1;
-            for (Patient patient : patients) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(patient.getFirstName() + " " + patient.getLastName());
-                row.createCell(1).setCellValue(patient.getDateOfBirth() != null ? patient.getDateOfBirth().format(DATE_FORMATTER) : "N/A");
-                row.createCell(2).setCellValue(patient.getGender() != null ? patient.getGender().toString() : "N/A");
-                row.createCell(3).setCellValue(patient.getPhone() != null ? patient.getPhone() : "N/A");
-                row.createCell(4).setCellValue(patient.getEmail() != null ? patient.getEmail() : "N/A");
-                row.createCell(5).setCellValue(patient.getAddress() != null ? patient.getAddress() : "N/A");
-                row.createCell(6).setCellValue(patient.getEmergencyContact() != null ? patient.getEmergencyContact() : "N/A");
-                row.createCell(7).setCellValue(patient.getEmergencyPhone() != null ? patient.getEmergencyPhone() : "N/A");
-                row.createCell(8).setCellValue(patient.getMedicalHistory() != null ? patient.getMedicalHistory() : "N/A");
-                row.createCell(9).setCellValue(patient.getAllergies() != null ? patient.getAllergies() : "N/A");
-            }
+                // Create data rows; only the first rows are sampled for column widths
+                int rowNum = 1;
+                for (T item : items) {
+                    String[] values = rowMapper.apply(item);
+                    Row row = sheet.createRow(rowNum);
+                    for (int i = 0; i < values.length; i++) {
+                        row.createCell(i).setCellValue(values[i]);
+                        if (rowNum <= EXCEL_WIDTH_SAMPLE_ROWS && values[i] != null) {
+                            columnChars[i] = Math.max(columnChars[i], values[i].length());
+                        }
+                    }
+                    rowNum++;
+                }
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+                // Estimated widths (autoSizeColumn would need every row in memory)
+                for (int i = 0; i < headers.length; i++) {
+                    sheet.setColumnWidth(i, Math.min(columnChars[i] + 2, EXCEL_MAX_COLUMN_CHARS) * 256);
+                }
 
-            workbook.write(baos);
-            return baos.toByteArray();
+                workbook.write(out);
+                out.flush();
+            } finally {
+                workbook.dispose();
+            }
         } catch (Exception e) {
             throw new RuntimeException("Error generating Excel", e);
         }
     }
 
-    public String exportPatientsToCSV(List<Patient> patients) {
-        try (StringWriter stringWriter = new StringWriter(); CSVWriter csvWriter = new CSVWriter(stringWriter)) {
+    private <T> void writeCSV(String[] headers, Iterable<T> items, Function<T, String[]> rowMapper, OutputStream out) {
+        try {
+            CSVWriter csvWriter = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
             
             // Write header
-            String[] headers = {"Name", "Date of Birth", "Gender", "Phone", "Email", "Address", "Emergency Contact", "Emergency Phone", "Medical History", "Allergies"};
             csvWriter.writeNext(headers);
 
             // Write data
-            for (Patient patient : patients) {
-                String[] data = {
-                    patient.getFirstName() + " " + patient.getLastName(),
-                    patient.getDateOfBirth() != null ? patient.getDateOfBirth().format(DATE_FORMATTER) : "N/A",
-                    patient.getGender() != null ? patient.getGender().toString() : "N/A",
-                    patient.getPhone() != null ? patient.getPhone() : "N/A",
-                    patient.getEmail() != null ? patient.getEmail() : "N/A",
-                    patient.getAddress() != null ? patient.getAddress() : "N/A",
-                    patient.getEmergencyContact() != null ? patient.getEmergencyContact() : "N/A",
-                    patient.getEmergencyPhone() != null ? patient.getEmergencyPhone() : "N/A",
-                    patient.getMedicalHistory() != null ? patient.getMedicalHistory() : "N/A",
-                    patient.getAllergies() != null ? patient.getAllergies() : "N/A"
-                };
-                csvWriter.writeNext(data);
+            for (T item : items) {
+                csvWriter.writeNext(rowMapper.apply(item));
             }
 
-            return stringWriter.toString();
+            // Flush only; the caller owns the output stream
+            csvWriter.flush();
         } catch (Exception e) {
             throw new RuntimeException("Error generating CSV", e);
         }
     }
 
-    // Appointment Export Methods
-    public byte[] exportAppointmentsToExcel(List<Appointment> appointments) {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Appointments");
-
-            // Create header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"Patient", "Doctor", "Date & Time", "Status", "Type", "Notes", "Symptoms", "Diagnosis", "Prescription"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
+    // Row mappers shared by the Excel and CSV exports
+    private String[] userRow(User user) {
+        return new String[] {
+            user.getFirstName() + " " + user.getLastName(),
+            user.getEmail(),
+            user.getDepartment() != null ? user.getDepartment().getName() : "N/A",
+            user.getRole().toString(),
+            user.getStatus() != null ? user.getStatus().toString() : "ACTIVE",
+            user.getPhoneNumber() != null ? user.getPhoneNumber() : "N/A",
+            user.getSpecialization() != null ? user.getSpecialization() : "N/A"
+        };
+    }
 
-            // Create data rows
-            int rowNum = 1;
-            for (Appointment appointment : appointments) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(appointment.getPatient().getFirstName() + " " + appointment.getPatient().getLastName());
-                row.createCell(1).setCellValue(appointment.getDoctor().getFirstName() + " " + appointment.getDoctor().getLastName());
-                row.createCell(2).setCellValue(appointment.getAppointmentDateTime().format(DATETIME_FORMATTER));
-                row.createCell(3).setCellValue(appointment.getStatus() != null ? appointment.getStatus().toString() : "N/A");
-                row.createCell(4).setCellValue(appointment.getAppointmentType() != null ? appointment.getAppointmentType().toString() : "N/A");
-                row.createCell(5).setCellValue(appointment.getNotes() != null ? appointment.getNotes() : "N/A");
-                row.createCell(6).setCellValue(appointment.getSymptoms() != null ? appointment.getSymptoms() : "N/A");
-                row.createCell(7).setCellValue(appointment.getDiagnosis() != null ? appointment.getDiagnosis() : "N/A");
-                row.createCell(8).setCellValue(appointment.getPrescription() != null ? appointment.getPrescription() : "N/A");
-            }
+    private String[] prescriptionRow(Prescription prescription) {
+        return new String[] {
+            prescription.getPatient().getFirstName() + " " + prescription.getPatient().getLastName(),
+            prescription.getDoctor().getFirstName() + " " + prescription.getDoctor().getLastName(),
+            prescription.getMedicationName() + (prescription.getStrength() != null ? " - " + prescription.getStrength() : ""),
+            prescription.getDosage(),
+            prescription.getFrequency(),
+            prescription.getDuration() + " days",
+            prescription.getStatus().toString(),
+            prescription.getPrescriptionDate().format(DATETIME_FORMATTER),
+            prescription.getInstructions() != null ? prescription.getInstructions() : "N/A"
+        };
+    }
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+    private String[] medicalRecordRow(MedicalRecord record) {
+        return new String[] {
+            record.getPatient().getFirstName() + " " + record.getPatient().getLastName(),
+            record.getDoctor().getFirstName() + " " + record.getDoctor().getLastName(),
+            record.getRecordDate().format(DATETIME_FORMATTER),
+            record.getRecordType().toString(),
+            record.getChiefComplaint() != null ? record.getChiefComplaint() : "N/A",
+            record.getDiagnosis() != null ? record.getDiagnosis() : "N/A",
+            record.getTreatmentPlan() != null ? record.getTreatmentPlan() : "N/A",
+            record.getVitalSigns() != null ? record.getVitalSigns() : "N/A"
+        };
+    }
 
-            workbook.write(baos);
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating Excel", e);
-        }
+    private String[] roomRow(Room room) {
+        return new String[] {
+            room.getRoomNumber(),
+            room.getRoomType() != null ? room.getRoomType().toString() : "N/A",
+            room.getStatus() != null ? room.getStatus().toString() : "N/A",
+            room.getBuilding() != null ? room.getBuilding() : "N/A",
+            room.getFloor() != null ? room.getFloor().toString() : "N/A",
+            room.getCapacity() != null ? room.getCapacity().toString() : "N/A",
+            room.getDepartment() != null ? room.getDepartment().getName() : "N/A",
+            room.getDailyRate() != null ? "$" + room.getDailyRate().toString() : "N/A",
+            room.getDescription() != null ? room.getDescription() : "N/A"
+        };
     }
 
-    public String exportAppointmentsToCSV(List<Appointment> appointments) {
-        try (StringWriter stringWriter = new StringWriter(); CSVWriter csvWriter = new CSVWriter(stringWriter)) {
-            
-            // Write header
-            String[] headers = {"Patient", "Doctor", "Date & Time", "Status", "Type", "Notes", "Symptoms", "Diagnosis", "Prescription"};
-            csvWriter.writeNext(headers);
+    private String[] departmentRow(Department dept) {
+        return new String[] {
+            dept.getName(),
+            dept.getDescription() != null ? dept.getDescription() : "N/A",
+            dept.getStatus() != null ? dept.getStatus().toString() : "ACTIVE",
+            dept.getLocation() != null ? dept.getLocation() : "N/A",
+            dept.getPhoneNumber() != null ? dept.getPhoneNumber() : "N/A",
+            dept.getEmail() != null ? dept.getEmail() : "N/A",
+            dept.getCapacity() != null ? dept.getCapacity().toString() : "N/A",
+            dept.getSpecialization() != null ? dept.getSpecialization() : "N/A",
+            dept.getHeadOfDepartment() != null ? 
+                "Dr. " + dept.getHeadOfDepartment().getFirstName() + " " + dept.getHeadOfDepartment().getLastName() : "N/A"
+        };
+    }
 
-            // Write data
-            for (Appointment appointment : appointments) {
-                String[] data = {
-                    appointment.getPatient().getFirstName() + " " + appointment.getPatient().getLastName(),
-                    appointment.getDoctor().getFirstName() + " " + appointment.getDoctor().getLastName(),
-                    appointment.getAppointmentDateTime().format(DATETIME_FORMATTER),
-                    appointment.getStatus() != null ? appointment.getStatus().toString() : "N/A",
-                    appointment.getAppointmentType() != null ? appointment.getAppointmentType().toString() : "N/A",
-                    appointment.getNotes() != null ? appointment.getNotes() : "N/A",
-                    appointment.getSymptoms() != null ? appointment.getSymptoms() : "N/A",
-                    appointment.getDiagnosis() != null ? appointment.getDiagnosis() : "N/A",
-                    appointment.getPrescription() != null ? appointment.getPrescription() : "N/A"
-                };
-                csvWriter.writeNext(data);
-            }
+    private String[] patientRow(Patient patient) {
+        return new String[] {
+            patient.getFirstName() + " " + patient.getLastName(),
+            patient.getDateOfBirth() != null ? patient.getDateOfBirth().format(DATE_FORMATTER) : "N/A",
+            patient.getGender() != null ? patient.getGender().toString() : "N/A",
+            patient.getPhone() != null ? patient.getPhone() : "N/A",
+            patient.getEmail() != null ? patient.getEmail() : "N/A",
+            patient.getAddress() != null ? patient.getAddress() : "N/A",
+            patient.getEmergencyContact() != null ? patient.getEmergencyContact() : "N/A",
+            patient.getEmergencyPhone() != null ? patient.getEmergencyPhone() : "N/A",
+            patient.getMedicalHistory() != null ? patient.getMedicalHistory() : "N/A",
+            patient.getAllergies() != null ? patient.getAllergies() : "N/A"
+        };
+    }
 
-            return stringWriter.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating CSV", e);
-        }
+    private String[] appointmentRow(Appointment appointment) {
+        return new String[] {
+            appointment.getPatient().getFirstName() + " " + appointment.getPatient().getLastName(),
+            appointment.getDoctor().getFirstName() + " " + appointment.getDoctor().getLastName(),
+            appointment.getAppointmentDateTime().format(DATETIME_FORMATTER),
+            appointment.getStatus() != null ? appointment.getStatus().toString() : "N/A",
+            appointment.getAppointmentType() != null ? appointment.getAppointmentType().toString() : "N/A",
+            appointment.getNotes() != null ? appointment.getNotes() : "N/A",
+            appointment.getSymptoms() != null ? appointment.getSymptoms() : "N/A",
+            appointment.getDiagnosis() != null ? appointment.getDiagnosis() : "N/A",
+            appointment.getPrescription() != null ? appointment.getPrescription() : "N/A"
+        };
     }
 
     // Additional PDF Export Methods - Simplified implementation
-    public byte[] exportRoomsToPdf(List<Room> rooms) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+    public void exportRoomsToPdf(Iterable<Room> rooms, OutputStream out) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc);
 
@@ -677,7 +403,9 @@ public class ExportService {
                 .setMarginBottom(20));
 
             // Add room data as paragraphs
+            long count = 0;
             for (Room room : rooms) {
+                count++;
                 document.add(new Paragraph(
                     "Room: " + room.getRoomNumber() + 
                     " | Type: " + (room.getRoomType() != null ? room.getRoomType().toString() : "N/A") + 
@@ -687,21 +415,21 @@ public class ExportService {
             }
 
             // Add footer
-            document.add(new Paragraph("Total Rooms: " + rooms.size())
+            document.add(new Paragraph("Total Rooms: " + count)
                 .setFontSize(10)
                 .setTextAlignment(TextAlignment.LEFT)
                 .setMarginTop(20));
 
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Error generating PDF", e);
         }
     }
 
-    public byte[] exportDepartmentsToPdf(List<Department> departments) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+    public void exportDepartmentsToPdf(Iterable<Department> departments, OutputStream out) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc);
 
@@ -718,7 +446,9 @@ public class ExportService {
                 .setMarginBottom(20));
 
             // Add department data as paragraphs
+            long count = 0;
             for (Department dept : departments) {
+                count++;
                 document.add(new Paragraph(
                     "Department: " + dept.getName() + 
                     " | Status: " + (dept.getStatus() != null ? dept.getStatus().toString() : "ACTIVE") + 
@@ -734,21 +464,21 @@ public class ExportService {
             }
 
             // Add footer
-            document.add(new Paragraph("Total Departments: " + departments.size())
+            document.add(new Paragraph("Total Departments: " + count)
                 .setFontSize(10)
                 .setTextAlignment(TextAlignment.LEFT)
                 .setMarginTop(20));
 
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Error generating PDF", e);
         }
     }
 
-    public byte[] exportPatientsToPdf(List<Patient> patients) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+    public void exportPatientsToPdf(Iterable<Patient> patients, OutputStream out) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc);
 
@@ -765,7 +495,9 @@ public class ExportService {
                 .setMarginBottom(20));
 
             // Add patient data as paragraphs
+            long count = 0;
             for (Patient patient : patients) {
+                count++;
                 document.add(new Paragraph(
                     "Patient: " + patient.getFirstName() + " " + patient.getLastName() + 
                     " | DOB: " + (patient.getDateOfBirth() != null ? patient.getDateOfBirth().format(DATE_FORMATTER) : "N/A") + 
@@ -780,21 +512,21 @@ public class ExportService {
             }
 
             // Add footer
-            document.add(new Paragraph("Total Patients: " + patients.size())
+            document.add(new Paragraph("Total Patients: " + count)
                 .setFontSize(10)
                 .setTextAlignment(TextAlignment.LEFT)
                 .setMarginTop(20));
 
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Error generating PDF", e);
         }
     }
 
-    public byte[] exportAppointmentsToPdf(List<Appointment> appointments) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+    public void exportAppointmentsToPdf(Iterable<Appointment> appointments, OutputStream out) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc);
 
@@ -811,7 +543,9 @@ public class ExportService {
                 .setMarginBottom(20));
 
             // Add appointment data as paragraphs
+            long count = 0;
             for (Appointment appointment : appointments) {
+                count++;
                 document.add(new Paragraph(
                     "Patient: " + appointment.getPatient().getFirstName() + " " + appointment.getPatient().getLastName() + 
                     " | Doctor: " + appointment.getDoctor().getFirstName() + " " + appointment.getDoctor().getLastName() + 
@@ -826,15 +560,73 @@ public class ExportService {
             }
 
             // Add footer
-            document.add(new Paragraph("Total Appointments: " + appointments.size())
+            document.add(new Paragraph("Total Appointments: " + count)
                 .setFontSize(10)
                 .setTextAlignment(TextAlignment.LEFT)
                 .setMarginTop(20));
 
             document.close();
-            return baos.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Error generating PDF", e);
         }
     }
-}
\ No newline at end of file
+
+    // System report: one section per report, nested maps rendered as indented lines
+    public void exportSystemReportToPdf(SystemReportSnapshot report, OutputStream out) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
+            PdfDocument pdfDoc = new PdfDocument(writer);
+            Document document = new Document(pdfDoc);
+
+            document.add(new Paragraph("Hospital Management System - System Report").setFontSize(18));
+            document.add(new Paragraph("Generated on: " + LocalDateTime.now().format(DATETIME_FORMATTER)).setFontSize(10));
+            document.add(new Paragraph("Data as of: " + report.getGeneratedAt().format(DATETIME_FORMATTER) +
+                " (computed in " + report.getComputationMillis() + " ms)").setFontSize(10));
+
+            for (Map.Entry<String, Object> section : report.getReport().entrySet()) {
+                document.add(new Paragraph(" "));
+                document.add(new Paragraph(reportLabel(section.getKey())).setFontSize(14));
+                addReportEntries(document, section.getValue(), 0);
+            }
+
+            document.close();
+        } catch (Exception e) {
+            throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
+        }
+    }
+
+    private void addReportEntries(Document document, Object value, int depth) {
+        if (!(value instanceof Map<?, ?> map)) {
+            document.add(new Paragraph(String.valueOf(value)).setFontSize(10).setMarginLeft(depth * 15));
+            return;
+        }
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getValue() instanceof Map) {
+                document.add(new Paragraph(reportLabel(String.valueOf(entry.getKey())) + ":")
+                    .setFontSize(10).setMarginLeft(depth * 15));
+                addReportEntries(document, entry.getValue(), depth + 1);
+            } else {
+                document.add(new Paragraph(reportLabel(String.valueOf(entry.getKey())) + ": " + entry.getValue())
+                    .setFontSize(10).setMarginLeft(depth * 15));
+            }
+        }
+    }
+
+    // "totalUsers" -> "Total Users"
+    private String reportLabel(String key) {
+        StringBuilder label = new StringBuilder();
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (i == 0) {
+                label.append(Character.toUpperCase(c));
+            } else {
+                if (Character.isUpperCase(c)) {
+                    label.append(' ');
+                }
+                label.append(c);
+            }
+        }
+        return label.toString();
+    }
+}
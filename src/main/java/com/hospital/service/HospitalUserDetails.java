@@ -0,0 +1,100 @@
+package com.hospital.service;
+
+import com.hospital.model.User;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// Authenticated principal carrying what the role checks need, so they never go back to the database.
+// The password hash is only present until Spring Security erases credentials after login.
+public class HospitalUserDetails implements UserDetails, CredentialsContainer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String email;
+    private String password;
+    private final User.Role role;
+    private final Long departmentId;
+    private final String firstName;
+    private final String lastName;
+
+    private HospitalUserDetails(Long id, String email, String password, User.Role role, Long departmentId,
+                                String firstName, String lastName) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+        this.departmentId = departmentId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    public static HospitalUserDetails of(UserSnapshot user, String passwordHash) {
+        return new HospitalUserDetails(user.id(), user.email(), passwordHash, user.role(), user.departmentId(),
+            user.firstName(), user.lastName());
+    }
+
+    public HospitalUserDetails withPassword(String encodedPassword) {
+        return new HospitalUserDetails(id, email, encodedPassword, role, departmentId, firstName, lastName);
+    }
+
+    public Long getId() { return id; }
+
+    public User.Role getRole() { return role; }
+
+    public Long getDepartmentId() { return departmentId; }
+
+    public String getFirstName() { return firstName; }
+
+    public String getLastName() { return lastName; }
+
+    public String getDisplayName() { return firstName + " " + lastName; }
+
+    public boolean hasRole(User.Role expected) {
+        return role == expected;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() { return password; }
+
+    @Override
+    public String getUsername() { return email; }
+
+    @Override
+    public boolean isAccountNonExpired() { return true; }
+
+    @Override
+    public boolean isAccountNonLocked() { return true; }
+
+    @Override
+    public boolean isCredentialsNonExpired() { return true; }
+
+    @Override
+    public boolean isEnabled() { return true; }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    // Same identity rules as Spring's own User, so session registries treat logins of one user as equal
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof HospitalUserDetails details && email.equals(details.email);
+    }
+
+    @Override
+    public int hashCode() {
+        return email.hashCode();
+    }
+}
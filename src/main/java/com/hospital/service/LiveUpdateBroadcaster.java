@@ -0,0 +1,280 @@
+package com.hospital.service;
+
+import com.hospital.config.VirtualThreadSupport;
+import com.hospital.model.Appointment;
+import com.hospital.model.Prescription;
+import com.hospital.model.Room;
+import com.hospital.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+// Server-sent event feed for the admin screens and the doctor dashboard. Services publish change events; this
+// fans them out as "room", "appointment" and "counters" messages. Admins get every room and appointment
+// change with hospital-wide counters; a doctor gets only their own appointments and counters. Every subscriber has its own bounded outbox drained on a
+// small sender pool, so publishers never wait on a client and one stalled client never delays the others.
+// Counter updates are merged into one pending send and read when it goes out. A client whose outbox fills
+// up or whose send blocks past the timeout is dropped; its browser reconnects and gets fresh counters.
+@Service
+public class LiveUpdateBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveUpdateBroadcaster.class);
+
+    @Autowired
+    private DashboardMetrics dashboardMetrics;
+
+    @Autowired
+    private VirtualThreadSupport virtualThreadSupport;
+
+    @Value("${hospital.live-updates.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${hospital.live-updates.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${hospital.live-updates.max-pending:50}")
+    private int maxPending;
+
+    @Value("${hospital.live-updates.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // DashboardMetrics.version() when counters were last pushed because of it
+    private long countersVersion;
+
+    // At most one drain task per subscriber is queued at a time, so this queue never outgrows the subscriber list
+    private ExecutorService senders;
+
+    // A null name is a comment line; an SseEventBuilder is built for one send and cannot be shared
+    private record Message(String name, Object data) {
+        SseEmitter.SseEventBuilder toEvent() {
+            return name == null ? SseEmitter.event().comment(String.valueOf(data)) : SseEmitter.event().name(name).data(data);
+        }
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        // Null for an admin feed
+        final Long doctorId;
+        final Queue<Message> outbox = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicBoolean countersPending = new AtomicBoolean();
+        final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() when the send in progress started, 0 when idle
+        volatile long sendStartedAt;
+
+        Subscriber(SseEmitter emitter, Long doctorId) {
+            this.emitter = emitter;
+            this.doctorId = doctorId;
+        }
+
+        void send(Message message) throws IOException {
+            sendStartedAt = System.nanoTime();
+            try {
+                emitter.send(message.toEvent());
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        senders = Executors.newFixedThreadPool(sendThreads, virtualThreadSupport.threadFactory("live-updates"));
+    }
+
+    public SseEmitter subscribe() {
+        return subscribe(null);
+    }
+
+    public SseEmitter subscribeDoctor(Long doctorId) {
+        return subscribe(doctorId);
+    }
+
+    private SseEmitter subscribe(Long doctorId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, doctorId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // Initial counters so a freshly loaded page is current even if it rendered from a stale snapshot
+        subscriber.countersPending.set(true);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onRoomStatusChanged(RoomStatusChangedEvent event) {
+        Map<String, Object> room = new LinkedHashMap<>();
+        room.put("roomId", event.roomId());
+        room.put("roomNumber", event.roomNumber());
+        room.put("from", event.from());
+        room.put("status", event.to());
+        room.put("changedAt", event.changedAt());
+        broadcast(new Message("room", room), subscriber -> subscriber.doctorId == null, true);
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        Map<String, Object> appointment = new LinkedHashMap<>();
+        appointment.put("appointmentId", event.appointmentId());
+        appointment.put("doctorId", event.doctorId());
+        appointment.put("appointmentDateTime", event.appointmentDateTime());
+        appointment.put("status", event.status());
+        appointment.put("deleted", event.deleted());
+        broadcast(new Message("appointment", appointment),
+            subscriber -> subscriber.doctorId == null || subscriber.doctorId.equals(event.doctorId()), true);
+    }
+
+    // Patients, prescriptions, records and users change without an event of their own; push counters when
+    // DashboardMetrics moved since the last look
+    @Scheduled(fixedDelayString = "${hospital.live-updates.counters-ms:2000}")
+    public void refreshCounters() {
+        long version = dashboardMetrics.version();
+        if (version == countersVersion) {
+            return;
+        }
+        countersVersion = version;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.countersPending.set(true);
+            schedule(subscriber);
+        }
+    }
+
+    // Keeps idle connections open through proxies, notices clients that went away, and drops stalled ones
+    @Scheduled(fixedDelayString = "${hospital.live-updates.heartbeat-ms:25000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStartedAt;
+            if (started != 0 && now - started > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis)) {
+                log.debug("Dropping live update client stuck in a send for over {} ms", sendTimeoutMillis);
+                drop(subscriber);
+            }
+        }
+        broadcast(new Message(null, "heartbeat"), subscriber -> true, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void broadcast(Message message, Predicate<Subscriber> audience, boolean withCounters) {
+        for (Subscriber subscriber : subscribers) {
+            if (!audience.test(subscriber)) {
+                continue;
+            }
+            if (subscriber.queued.incrementAndGet() > maxPending) {
+                log.debug("Dropping live update client with {} undelivered events", maxPending);
+                drop(subscriber);
+                continue;
+            }
+            subscriber.outbox.add(message);
+            if (withCounters) {
+                subscriber.countersPending.set(true);
+            }
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.draining.set(false);
+            log.debug("Live update dropped during shutdown");
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Message message;
+            while ((message = subscriber.outbox.poll()) != null) {
+                subscriber.queued.decrementAndGet();
+                subscriber.send(message);
+            }
+            // Until the first load the counters read 0; refreshCounters() sends them once replace() bumps the version
+            if (dashboardMetrics.isLoaded() && subscriber.countersPending.getAndSet(false)) {
+                subscriber.send(new Message("counters", counters(subscriber.doctorId)));
+            }
+        } catch (IOException | IllegalStateException e) {
+            drop(subscriber);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Something arrived after the outbox was emptied but before the flag was cleared
+        if (!subscriber.outbox.isEmpty() || (subscriber.countersPending.get() && dashboardMetrics.isLoaded())) {
+            schedule(subscriber);
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.outbox.clear();
+            subscriber.emitter.completeWithError(new IOException("Live update client disconnected"));
+        }
+    }
+
+    // Read from the in-memory dashboard counters, never from the database. Keys match the element ids on the pages.
+    private Map<String, Object> counters(Long doctorId) {
+        Map<String, Object> counters = new LinkedHashMap<>();
+        if (doctorId != null) {
+            LocalDate today = LocalDate.now();
+            counters.put("todayAppointments", dashboardMetrics.appointmentsOf(doctorId, today));
+            counters.put("totalPatients", dashboardMetrics.patientsOf(doctorId));
+            counters.put("completedConsultations", dashboardMetrics.appointmentsOf(doctorId, Appointment.Status.COMPLETED));
+            counters.put("activePrescriptions",
+                dashboardMetrics.prescriptionsOf(doctorId, Prescription.PrescriptionStatus.ACTIVE));
+            counters.put("totalMedicalRecords", dashboardMetrics.medicalRecordsOf(doctorId));
+            return counters;
+        }
+        counters.put("totalUsers", dashboardMetrics.totalUsers());
+        counters.put("totalDoctors", dashboardMetrics.count(User.Role.DOCTOR));
+        counters.put("totalAdmins", dashboardMetrics.count(User.Role.ADMIN));
+        counters.put("totalRooms", dashboardMetrics.totalRooms());
+        counters.put("availableRooms", dashboardMetrics.count(Room.RoomStatus.AVAILABLE));
+        counters.put("occupiedRooms", dashboardMetrics.count(Room.RoomStatus.OCCUPIED));
+        counters.put("maintenanceRooms", dashboardMetrics.count(Room.RoomStatus.MAINTENANCE));
+        counters.put("cleaningRooms", dashboardMetrics.count(Room.RoomStatus.CLEANING));
+        counters.put("todayAppointments", dashboardMetrics.appointmentsOn(LocalDate.now()));
+        counters.put("scheduledAppointments", dashboardMetrics.count(Appointment.Status.SCHEDULED));
+        return counters;
+    }
+}
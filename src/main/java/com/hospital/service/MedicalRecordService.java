@@ -6,8 +6,11 @@ import com.hospital.model.User;
 import com.hospital.repository.MedicalRecordRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class MedicalRecordService {
@@ -15,6 +18,9 @@ public class MedicalRecordService {
     @Autowired
     private MedicalRecordRepository medicalRecordRepository;
 
+    @Autowired
+    private EntityStreamSupport entityStreamSupport;
+
     public MedicalRecord saveMedicalRecord(MedicalRecord medicalRecord) {
         return medicalRecordRepository.save(medicalRecord);
     }
@@ -46,4 +52,12 @@ public class MedicalRecordService {
     public void deleteMedicalRecord(Long id) {
         medicalRecordRepository.deleteById(id);
     }
+
+    // Cursor-backed stream for exports; the consumer runs inside the read-only transaction
+    @Transactional(readOnly = true)
+    public void streamByDoctor(User doctor, Consumer<Iterable<MedicalRecord>> consumer) {
+        try (Stream<MedicalRecord> records = medicalRecordRepository.streamByDoctor(doctor)) {
+            consumer.accept(entityStreamSupport.clearing(records));
+        }
+    }
 }
\ No newline at end of file
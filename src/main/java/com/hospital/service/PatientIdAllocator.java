@@ -0,0 +1,109 @@
+package com.hospital.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Hands out patient IDs (P0001, P0002, ... P10000) from blocks reserved on the patient_id_seq sequence.
+// Each NEXT VALUE reserves blockSize numbers for this node, so nodes never collide; numbers left in a block
+// at shutdown are skipped, which leaves gaps but never reuses an ID.
+@Component
+public class PatientIdAllocator {
+
+    private static final String SEQUENCE = "patient_id_seq";
+    // One-row table whose row lock serializes seeding the sequence across nodes
+    private static final String LOCK_TABLE = "patient_id_seq_lock";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${hospital.patients.id-block-size:50}")
+    private int blockSize;
+
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile boolean sequenceReady;
+
+    public String nextPatientId() {
+        return String.format("P%04d", nextNumber());
+    }
+
+    public long nextNumber() {
+        while (true) {
+            Block current = block.get();
+            long number = current.next.getAndIncrement();
+            if (number < current.end) {
+                return number;
+            }
+            refill(current);
+        }
+    }
+
+    // Only the thread that finds the block exhausted reserves the next one; the rest retry against it.
+    // A lock rather than synchronized: the sequence call blocks, and a monitor would pin a virtual thread.
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            if (block.get() != exhausted) {
+                return;
+            }
+            if (!sequenceReady) {
+                initSequence();
+            }
+            Long start = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + SEQUENCE, Long.class);
+            block.set(new Block(start, start + blockSize));
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    // Creates the sequence on first use and moves it past any IDs issued before it existed. Nodes seed it one
+    // at a time under a row lock, and it only ever moves forward: a node that finds the sequence already past
+    // the highest issued ID leaves it alone, so a block another node holds is never handed out again.
+    // H2's ALTER SEQUENCE does not commit, so the lock is held until the restart is done.
+    private void initSequence() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE + " START WITH 1 INCREMENT BY " + blockSize);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + LOCK_TABLE + " (id INT PRIMARY KEY)");
+        jdbcTemplate.update("MERGE INTO " + LOCK_TABLE + " KEY (id) VALUES (1)");
+
+        // Its own transaction, so the lock is released here and not when a surrounding patient save commits
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT id FROM " + LOCK_TABLE + " WHERE id = 1 FOR UPDATE", Integer.class);
+            jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " INCREMENT BY " + blockSize);
+
+            Long maxIssued = jdbcTemplate.queryForObject(
+                "SELECT MAX(CAST(SUBSTRING(patient_id, 2) AS BIGINT)) FROM patients WHERE REGEXP_LIKE(patient_id, '^P[0-9]+$')",
+                Long.class);
+            Long nextValue = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Long.class,
+                SEQUENCE.toUpperCase());
+            if (maxIssued != null && nextValue != null && nextValue <= maxIssued) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH " + (maxIssued + 1));
+            }
+        });
+        sequenceReady = true;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
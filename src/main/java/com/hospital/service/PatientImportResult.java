@@ -0,0 +1,76 @@
+package com.hospital.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of one bulk patient import; only the first MAX_REPORTED_REJECTIONS rejected rows are listed
+public class PatientImportResult {
+
+    private static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    private final String fileName;
+    private final long startedAt = System.currentTimeMillis();
+    private long finishedAt;
+    private long totalRows;
+    private long imported;
+    private long rejected;
+    private final List<Map<String, Object>> rejections = new ArrayList<>();
+
+    public PatientImportResult(String fileName) {
+        this.fileName = fileName;
+    }
+
+    void countRow() {
+        totalRows++;
+    }
+
+    void recordImported(int rows) {
+        imported += rows;
+    }
+
+    void reject(long rowNumber, String reason) {
+        rejected++;
+        if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+            Map<String, Object> rejection = new LinkedHashMap<>();
+            rejection.put("row", rowNumber);
+            rejection.put("reason", reason);
+            rejections.add(rejection);
+        }
+    }
+
+    void finish() {
+        finishedAt = System.currentTimeMillis();
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedMillis() {
+        return (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+    }
+
+    public Map<String, Object> toReport() {
+        long elapsed = getElapsedMillis();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("fileName", fileName);
+        report.put("totalRows", totalRows);
+        report.put("imported", imported);
+        report.put("rejected", rejected);
+        report.put("elapsedMillis", elapsed);
+        report.put("rowsPerSecond", elapsed > 0 ? Math.round(totalRows * 1000.0 / elapsed) : totalRows);
+        report.put("rejections", rejections);
+        report.put("rejectionsTruncated", rejected > rejections.size());
+        return report;
+    }
+}
@@ -0,0 +1,394 @@
+package com.hospital.service;
+
+import com.hospital.model.Patient;
+import com.hospital.model.User;
+import com.hospital.repository.PatientRepository;
+import com.hospital.repository.UserRepository;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Bulk patient import from CSV or XLSX, read from a file on disk. Rows are read as a stream, validated in
+// parallel chunks, deduplicated by email and written with batched JDBC inserts, one transaction per chunk.
+@Service
+public class PatientImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientImportService.class);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO patients (patient_id, first_name, last_name, email, phone, date_of_birth, gender, address, " +
+        "city, state, zip_code, country, nationality, blood_group, marital_status, occupation, medical_history, " +
+        "allergies, current_medications, emergency_contact, emergency_phone, emergency_relation, insurance_provider, " +
+        "insurance_policy_number, insurance_group_number, status, doctor_id, registration_date, notes) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Header names are matched ignoring case, spaces and punctuation, so "First Name" maps to firstname.
+    // The optional free-text groups are listed in INSERT_SQL order.
+    private static final String[] OPTIONAL_COLUMNS = {"city", "state", "zipcode", "country", "nationality"};
+    private static final String[] DETAIL_COLUMNS = {"occupation", "medicalhistory", "allergies", "currentmedications",
+        "emergencycontact", "emergencyphone", "emergencyrelation", "insuranceprovider", "insurancepolicynumber",
+        "insurancegroupnumber"};
+    private static final String[] REQUIRED_COLUMNS = {"firstname", "lastname", "email", "phone", "dateofbirth",
+        "gender", "address"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientIdAllocator patientIdAllocator;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private DashboardMetricsLoader dashboardMetricsLoader;
+
+    @Value("${hospital.patients.import.batch-size:1000}")
+    private int batchSize;
+
+    public PatientImportResult importPatients(Path file, String fileName, User defaultDoctor) {
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        if (!name.endsWith(".csv") && !name.endsWith(".xlsx")) {
+            throw new IllegalArgumentException("Only .csv and .xlsx files can be imported");
+        }
+
+        ImportRun run = new ImportRun(new PatientImportResult(fileName), defaultDoctor);
+        try {
+            if (name.endsWith(".csv")) {
+                readCsv(file, run);
+            } else {
+                readXlsx(file, run);
+            }
+            run.flush();
+        } finally {
+            run.result.finish();
+            if (run.result.getImported() > 0) {
+                // Rows were written behind the persistence context, so derived views are rebuilt from the table
+                patientService.invalidateStatistics();
+                patientSearchIndex.rebuild();
+                dashboardMetricsLoader.rebuild();
+            }
+        }
+
+        log.info("Imported {} of {} patient rows from {} in {} ms", run.result.getImported(),
+            run.result.getTotalRows(), fileName, run.result.getElapsedMillis());
+        return run.result;
+    }
+
+    private void readCsv(Path file, ImportRun run) {
+        try (CSVReader reader = new CSVReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+            String[] cells;
+            long rowNumber = 0;
+            while ((cells = reader.readNext()) != null) {
+                rowNumber++;
+                run.accept(rowNumber, Arrays.asList(cells));
+            }
+        } catch (CsvValidationException | java.io.IOException e) {
+            throw new RuntimeException("Error reading CSV import: " + e.getMessage(), e);
+        }
+    }
+
+    // SAX parsing of the first sheet keeps memory flat regardless of the number of rows. Opened from the
+    // file, the zip is read entry by entry; OPCPackage.open(InputStream) would buffer all of it in memory.
+    private void readXlsx(Path file, ImportRun run) {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), strings,
+                    new SheetRows(run), new IsoDateFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error reading Excel import: " + e.getMessage(), e);
+        }
+    }
+
+    private void insert(List<Row> rows, PatientImportResult result) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows.stream().map(Row::values).toList()));
+            result.recordImported(rows.size());
+        } catch (DataAccessException e) {
+            // A constraint failure rolls back the whole chunk; retry row by row to find the offenders
+            for (Row row : rows) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, row.values());
+                    result.recordImported(1);
+                } catch (DataAccessException rowFailure) {
+                    result.reject(row.rowNumber(), "Database rejected row: " + rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private record Row(long rowNumber, String email, Object[] values, String error) {
+    }
+
+    // State for a single import: header mapping, lookups preloaded once, and the pending chunk
+    private class ImportRun {
+
+        private final PatientImportResult result;
+        private final Long defaultDoctorId;
+        private final Set<String> emails;
+        private final Map<String, Long> doctorsByEmail = new HashMap<>();
+        private final List<Map.Entry<Long, List<String>>> pending = new ArrayList<>();
+        private Map<String, Integer> columns;
+
+        private ImportRun(PatientImportResult result, User defaultDoctor) {
+            this.result = result;
+            this.defaultDoctorId = defaultDoctor != null ? defaultDoctor.getId() : null;
+            this.emails = new HashSet<>(patientRepository.findAllEmails());
+            for (User doctor : userRepository.findByRole(User.Role.DOCTOR)) {
+                doctorsByEmail.put(doctor.getEmail().toLowerCase(Locale.ROOT), doctor.getId());
+            }
+        }
+
+        private void accept(long rowNumber, List<String> cells) {
+            if (columns == null) {
+                columns = headerColumns(cells);
+                return;
+            }
+            if (cells.stream().allMatch(cell -> cell == null || cell.isBlank())) {
+                return;
+            }
+            result.countRow();
+            pending.add(Map.entry(rowNumber, cells));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Row> validated = pending.parallelStream()
+                .map(entry -> validate(entry.getKey(), entry.getValue()))
+                .toList();
+            pending.clear();
+
+            List<Row> batch = new ArrayList<>(validated.size());
+            for (Row row : validated) {
+                if (row.error() != null) {
+                    result.reject(row.rowNumber(), row.error());
+                } else if (!emails.add(row.email())) {
+                    result.reject(row.rowNumber(), "Duplicate email " + row.email());
+                } else {
+                    row.values()[0] = patientIdAllocator.nextPatientId();
+                    batch.add(row);
+                }
+            }
+            if (!batch.isEmpty()) {
+                insert(batch, result);
+            }
+        }
+
+        private Map<String, Integer> headerColumns(List<String> header) {
+            Map<String, Integer> mapped = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i) != null) {
+                    mapped.putIfAbsent(header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", ""), i);
+                }
+            }
+            for (String column : REQUIRED_COLUMNS) {
+                if (!mapped.containsKey(column)) {
+                    throw new IllegalArgumentException("Missing required column: " + column);
+                }
+            }
+            return mapped;
+        }
+
+        // Runs on the common pool; only reads the header map and the doctor lookup
+        private Row validate(long rowNumber, List<String> cells) {
+            try {
+                String email = required(cells, "email");
+                if (!email.matches("^[^\\s@]+@[^\\s@]+\\.[^\\s@]+$")) {
+                    return new Row(rowNumber, null, null, "Invalid email " + email);
+                }
+                LocalDate dateOfBirth = LocalDate.parse(required(cells, "dateofbirth"));
+                if (dateOfBirth.isAfter(LocalDate.now())) {
+                    return new Row(rowNumber, null, null, "Date of birth is in the future");
+                }
+
+                Long doctorId = defaultDoctorId;
+                String doctorEmail = cell(cells, "doctoremail");
+                if (doctorEmail != null) {
+                    doctorId = doctorsByEmail.get(doctorEmail.toLowerCase(Locale.ROOT));
+                    if (doctorId == null) {
+                        return new Row(rowNumber, null, null, "Unknown doctor " + doctorEmail);
+                    }
+                }
+
+                List<Object> values = new ArrayList<>(29);
+                values.add(null); // patient_id, assigned once the row survives deduplication
+                values.add(required(cells, "firstname"));
+                values.add(required(cells, "lastname"));
+                values.add(email);
+                values.add(required(cells, "phone"));
+                values.add(dateOfBirth);
+                values.add(enumName(Patient.Gender.class, required(cells, "gender"), "gender"));
+                values.add(required(cells, "address"));
+                for (String column : OPTIONAL_COLUMNS) {
+                    values.add(cell(cells, column));
+                }
+                values.add(bloodGroup(cell(cells, "bloodgroup")));
+                values.add(enumName(Patient.MaritalStatus.class, cell(cells, "maritalstatus"), "marital status"));
+                for (String column : DETAIL_COLUMNS) {
+                    values.add(cell(cells, column));
+                }
+                String status = enumName(Patient.PatientStatus.class, cell(cells, "status"), "status");
+                values.add(status != null ? status : Patient.PatientStatus.ACTIVE.name());
+                values.add(doctorId);
+                values.add(Timestamp.valueOf(LocalDateTime.now()));
+                values.add(cell(cells, "notes"));
+                return new Row(rowNumber, email.toLowerCase(Locale.ROOT), values.toArray(), null);
+            } catch (DateTimeParseException e) {
+                return new Row(rowNumber, null, null, "Invalid date of birth, expected yyyy-MM-dd");
+            } catch (IllegalArgumentException e) {
+                return new Row(rowNumber, null, null, e.getMessage());
+            }
+        }
+
+        private String required(List<String> cells, String column) {
+            String value = cell(cells, column);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing " + column);
+            }
+            return value;
+        }
+
+        private String cell(List<String> cells, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= cells.size() || cells.get(index) == null) {
+                return null;
+            }
+            String value = cells.get(index).trim();
+            return value.isEmpty() || value.equals("N/A") ? null : value;
+        }
+
+        private <E extends Enum<E>> String enumName(Class<E> type, String value, String column) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Enum.valueOf(type, value.toUpperCase(Locale.ROOT)).name();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown " + column + " " + value);
+            }
+        }
+
+        // Accepts both the enum name (A_POSITIVE) and the display name (A+)
+        private String bloodGroup(String value) {
+            if (value == null) {
+                return null;
+            }
+            for (Patient.BloodGroup group : Patient.BloodGroup.values()) {
+                if (group.name().equalsIgnoreCase(value) || group.getDisplayName().equalsIgnoreCase(value)) {
+                    return group.name();
+                }
+            }
+            throw new IllegalArgumentException("Unknown blood group " + value);
+        }
+    }
+
+    // Collects the cells of each sheet row, filling gaps left by empty cells
+    private static class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final ImportRun run;
+        private final List<String> cells = new ArrayList<>();
+
+        private SheetRows(ImportRun run) {
+            this.run = run;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            run.accept(rowNum + 1L, new ArrayList<>(cells));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+            while (cells.size() < column) {
+                cells.add(null);
+            }
+            cells.add(formattedValue);
+        }
+    }
+
+    // Date cells come through as yyyy-MM-dd whatever their display format in the workbook
+    private static class IsoDateFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.hospital.service;
+
+import com.hospital.model.Patient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+// One keyset page of patients ordered by (lastName, id), with opaque cursors to the neighbouring pages
+public class PatientPage {
+
+    private final List<Patient> patients;
+    private final int size;
+    private final String nextCursor;
+    private final String prevCursor;
+
+    public PatientPage(List<Patient> patients, int size, String nextCursor, String prevCursor) {
+        this.patients = patients;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+    }
+
+    public List<Patient> getPatients() {
+        return patients;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean hasPrev() {
+        return prevCursor != null;
+    }
+
+    static String encodeCursor(Patient patient) {
+        String key = patient.getLastName() + "|" + patient.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Position decoded from a cursor; last names may contain '|' so the id is taken after the last one
+    record Cursor(String lastName, Long id) {
+
+        static Cursor decode(String cursor) {
+            try {
+                String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = key.lastIndexOf('|');
+                return new Cursor(key.substring(0, separator), Long.valueOf(key.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+        }
+    }
+}
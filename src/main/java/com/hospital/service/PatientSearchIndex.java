@@ -0,0 +1,244 @@
+package com.hospital.service;
+
+import com.hospital.model.Patient;
+import com.hospital.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// In-memory inverted index over patient name, email, phone and patient ID.
+// Substring queries go through trigram postings. One and two character queries have no trigram, so they scan
+// the indexed documents in memory; they still match anywhere in a field, like the database search does.
+@Component
+public class PatientSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchIndex.class);
+
+    private static final int GRAM_SIZE = 3;
+    private static final Pattern PHONE_QUERY = Pattern.compile("[\\d\\s()+.\\-]*\\d[\\d\\s()+.\\-]*");
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityStreamSupport entityStreamSupport;
+
+    private final Map<Long, IndexedPatient> documents = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> grams = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        try (Stream<Patient> patients = patientRepository.streamAll()) {
+            for (Patient patient : entityStreamSupport.clearing(patients)) {
+                index(patient);
+            }
+        }
+        ready = true;
+        log.info("Indexed {} patients for search in {} ms", documents.size(), System.currentTimeMillis() - start);
+    }
+
+    // Until the startup build finishes callers fall back to the database search
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Patient patient) {
+        if (patient == null || patient.getId() == null) {
+            return;
+        }
+        IndexedPatient document = new IndexedPatient(patient);
+        lock.writeLock().lock();
+        try {
+            IndexedPatient previous = documents.put(document.id, document);
+            if (previous != null) {
+                removePostings(previous);
+            }
+            for (String gram : document.grams()) {
+                grams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(document.id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long patientId) {
+        lock.writeLock().lock();
+        try {
+            IndexedPatient previous = documents.remove(patientId);
+            if (previous != null) {
+                removePostings(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids of every matching patient, best match first
+    public List<Long> search(String term) {
+        String query = normalizeQuery(term);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = query.length() < GRAM_SIZE ? documents.keySet() : intersect(gramsOf(query));
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+
+            List<ScoredPatient> matches = new ArrayList<>();
+            for (Long id : candidates) {
+                IndexedPatient document = documents.get(id);
+                int score = document != null ? document.score(query) : 0;
+                // Trigram hits and scanned documents are only candidates; the score check drops non-matches
+                if (score > 0) {
+                    matches.add(new ScoredPatient(document, score));
+                }
+            }
+            matches.sort(Comparator.comparingInt(ScoredPatient::score).reversed()
+                .thenComparing(match -> match.document().sortName));
+            return matches.stream().map(match -> match.document().id).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> intersect(Set<String> queryGrams) {
+        List<Set<Long>> postings = new ArrayList<>(queryGrams.size());
+        for (String gram : queryGrams) {
+            Set<Long> posting = grams.get(gram);
+            if (posting == null) {
+                return Collections.emptySet();
+            }
+            postings.add(posting);
+        }
+        // Walk the rarest gram and probe the others
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>();
+        for (Long id : postings.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < postings.size() && inAll; i++) {
+                inAll = postings.get(i).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private void removePostings(IndexedPatient document) {
+        for (String gram : document.grams()) {
+            Set<Long> posting = grams.get(gram);
+            if (posting != null) {
+                posting.remove(document.id);
+                if (posting.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    // Phone-looking queries are matched against digits only, like the indexed phone numbers
+    private static String normalizeQuery(String term) {
+        if (term == null) {
+            return "";
+        }
+        String query = normalize(term);
+        return PHONE_QUERY.matcher(query).matches() ? query.replaceAll("\\D", "") : query;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> gramsOf(String value) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            result.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return result;
+    }
+
+    private record ScoredPatient(IndexedPatient document, int score) {
+    }
+
+    // Normalized copy of the searchable fields, kept to verify and rank candidates without touching the database
+    private static final class IndexedPatient {
+        private final Long id;
+        private final String firstName;
+        private final String lastName;
+        private final String fullName;
+        private final String email;
+        private final String phone;
+        private final String patientId;
+        private final String sortName;
+
+        private IndexedPatient(Patient patient) {
+            this.id = patient.getId();
+            this.firstName = normalize(patient.getFirstName());
+            this.lastName = normalize(patient.getLastName());
+            this.fullName = firstName + " " + lastName;
+            this.email = normalize(patient.getEmail());
+            this.phone = normalize(patient.getPhone()).replaceAll("\\D", "");
+            this.patientId = normalize(patient.getPatientId());
+            this.sortName = lastName + " " + firstName;
+        }
+
+        private Set<String> grams() {
+            Set<String> result = gramsOf(fullName);
+            result.addAll(gramsOf(email));
+            result.addAll(gramsOf(phone));
+            result.addAll(gramsOf(patientId));
+            return result;
+        }
+
+        // 0 means no match
+        private int score(String query) {
+            if (query.equals(patientId) || query.equals(email)) {
+                return 100;
+            }
+            if (query.equals(lastName) || query.equals(firstName) || query.equals(fullName)) {
+                return 80;
+            }
+            if (lastName.startsWith(query) || firstName.startsWith(query) || fullName.startsWith(query)) {
+                return 60;
+            }
+            if (patientId.startsWith(query) || email.startsWith(query) || phone.startsWith(query)) {
+                return 40;
+            }
+            if (firstName.contains(query) || lastName.contains(query) || fullName.contains(query)) {
+                return 20;
+            }
+            if (email.contains(query) || phone.contains(query) || patientId.contains(query)) {
+                return 10;
+            }
+            return 0;
+        }
+    }
+}
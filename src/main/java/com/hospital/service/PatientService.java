@@ -4,11 +4,18 @@ import com.hospital.model.Patient;
 import com.hospital.model.User;
 import com.hospital.repository.PatientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -18,11 +25,35 @@ public class PatientService {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private EntityStreamSupport entityStreamSupport;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private PatientIdAllocator patientIdAllocator;
+    
+    @Autowired
+    private CacheSettings cacheSettings;
+
+    // Upper bound on ranked search results rendered on the management page
+    private static final int SEARCH_RESULT_LIMIT = 500;
+    // Ids per IN query when filtering search hits in the database
+    private static final int SEARCH_FILTER_BATCH = 1000;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final long STATISTICS_TTL_MILLIS = 5000;
+
+    private volatile StatisticsSnapshot statisticsSnapshot;
+
     public Patient savePatient(Patient patient) {
         if (patient.getPatientId() == null || patient.getPatientId().isEmpty()) {
-            patient.setPatientId(generatePatientId());
+            patient.setPatientId(patientIdAllocator.nextPatientId());
         }
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        patientSearchIndex.index(saved);
+        invalidateStatistics();
+        return saved;
     }
 
     public Patient findById(Long id) {
@@ -42,30 +73,112 @@ public class PatientService {
     }
     
     public List<Patient> findAllOrderByName() {
-        return patientRepository.findAll().stream()
-                .sorted((p1, p2) -> p1.getLastName().compareToIgnoreCase(p2.getLastName()))
-                .toList();
+        return patientRepository.findAllByOrderByLastNameAscIdAsc();
+    }
+    
+    // Keyset page ordered by (lastName, id); pass at most one of the cursors, neither for the first page
+    public PatientPage findPage(String afterCursor, String beforeCursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One extra row tells whether another page exists in the direction of travel
+        Pageable probe = PageRequest.of(0, pageSize + 1);
+        
+        if (beforeCursor != null && !beforeCursor.isEmpty()) {
+            PatientPage.Cursor cursor = PatientPage.Cursor.decode(beforeCursor);
+            List<Patient> rows = new ArrayList<>(patientRepository.findPageBefore(cursor.lastName(), cursor.id(), probe));
+            if (rows.isEmpty()) {
+                return findPage(null, null, pageSize);
+            }
+            boolean hasPrev = rows.size() > pageSize;
+            List<Patient> patients = rows.subList(0, Math.min(rows.size(), pageSize));
+            Collections.reverse(patients);
+            return new PatientPage(patients, pageSize,
+                PatientPage.encodeCursor(patients.get(patients.size() - 1)),
+                hasPrev ? PatientPage.encodeCursor(patients.get(0)) : null);
+        }
+        
+        boolean first = afterCursor == null || afterCursor.isEmpty();
+        List<Patient> rows;
+        if (first) {
+            rows = patientRepository.findFirstPage(probe);
+        } else {
+            PatientPage.Cursor cursor = PatientPage.Cursor.decode(afterCursor);
+            rows = patientRepository.findPageAfter(cursor.lastName(), cursor.id(), probe);
+            if (rows.isEmpty()) {
+                return findPage(null, null, pageSize);
+            }
+        }
+        boolean hasNext = rows.size() > pageSize;
+        List<Patient> patients = rows.subList(0, Math.min(rows.size(), pageSize));
+        String next = hasNext ? PatientPage.encodeCursor(patients.get(patients.size() - 1)) : null;
+        String prev = !first && !patients.isEmpty() ? PatientPage.encodeCursor(patients.get(0)) : null;
+        return new PatientPage(patients, pageSize, next, prev);
     }
 
     public long countByDoctor(User doctor) {
         return patientRepository.countByDoctor(doctor);
     }
 
+    public long countAll() {
+        return patientRepository.count();
+    }
+
     public void deletePatient(Long id) {
         patientRepository.deleteById(id);
+        patientSearchIndex.remove(id);
+        invalidateStatistics();
     }
     
     // Search and Filter Methods
     public List<Patient> searchPatients(String searchTerm) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return findAllOrderByName();
+            // Same bound as a ranked search; the full listing is paged through findPage
+            return patientRepository.findFirstPage(PageRequest.of(0, SEARCH_RESULT_LIMIT));
+        }
+        if (!patientSearchIndex.isReady()) {
+            return patientRepository.searchPatients(searchTerm.trim());
         }
-        return patientRepository.searchPatients(searchTerm.trim());
+        List<Long> ids = patientSearchIndex.search(searchTerm);
+        return findAllInOrder(ids.subList(0, Math.min(ids.size(), SEARCH_RESULT_LIMIT)));
     }
     
     public List<Patient> findPatientsWithFilters(String searchTerm, Patient.PatientStatus status, 
                                                Patient.Gender gender, Patient.BloodGroup bloodGroup, User doctor) {
-        return patientRepository.findPatientsWithFilters(searchTerm, status, gender, bloodGroup, doctor);
+        boolean hasTerm = searchTerm != null && !searchTerm.trim().isEmpty();
+        if (!hasTerm || !patientSearchIndex.isReady()) {
+            return patientRepository.findPatientsWithFilters(hasTerm ? searchTerm.trim() : null, status, gender, bloodGroup, doctor);
+        }
+        if (status == null && gender == null && bloodGroup == null && doctor == null) {
+            return searchPatients(searchTerm);
+        }
+        
+        // Walk the ranked hits in batches, letting the database apply the remaining filters
+        List<Long> ids = patientSearchIndex.search(searchTerm);
+        List<Patient> result = new ArrayList<>();
+        for (int from = 0; from < ids.size() && result.size() < SEARCH_RESULT_LIMIT; from += SEARCH_FILTER_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + SEARCH_FILTER_BATCH));
+            result.addAll(inOrder(batch, patientRepository.findPatientsWithFiltersByIds(batch, status, gender, bloodGroup, doctor)));
+        }
+        return result.size() > SEARCH_RESULT_LIMIT ? result.subList(0, SEARCH_RESULT_LIMIT) : result;
+    }
+    
+    private List<Patient> findAllInOrder(List<Long> ids) {
+        return inOrder(ids, patientRepository.findAllById(ids));
+    }
+    
+    // Restores the index ranking, which the database does not preserve for IN queries
+    private List<Patient> inOrder(List<Long> ids, List<Patient> patients) {
+        Map<Long, Patient> byId = new HashMap<>();
+        for (Patient patient : patients) {
+            byId.put(patient.getId(), patient);
+        }
+        List<Patient> ordered = new ArrayList<>(patients.size());
+        for (Long id : ids) {
+            Patient patient = byId.get(id);
+            if (patient != null) {
+                ordered.add(patient);
+            }
+        }
+        return ordered;
     }
     
     public List<Patient> findByStatus(Patient.PatientStatus status) {
@@ -81,23 +194,44 @@ public class PatientService {
     }
     
     // Statistics Methods
+    // Served from a short-lived snapshot; the management page reloads it on every visit
     public Map<String, Object> getPatientStatistics() {
-        Map<String, Object> stats = new HashMap<>();
+        StatisticsSnapshot snapshot = statisticsSnapshot;
+        long now = System.currentTimeMillis();
+        boolean cached = cacheSettings.isEnabled();
+        if (cached && snapshot != null && now < snapshot.expiresAt()) {
+            return snapshot.stats();
+        }
         
-        stats.put("totalPatients", patientRepository.count());
-        stats.put("activePatients", patientRepository.countByStatus(Patient.PatientStatus.ACTIVE));
-        stats.put("inactivePatients", patientRepository.countByStatus(Patient.PatientStatus.INACTIVE));
-        stats.put("dischargedPatients", patientRepository.countByStatus(Patient.PatientStatus.DISCHARGED));
+        LocalDate today = LocalDate.now();
+        PatientRepository.PatientStatistics row = patientRepository.getStatistics(
+            Patient.PatientStatus.ACTIVE, Patient.PatientStatus.INACTIVE, Patient.PatientStatus.DISCHARGED,
+            Patient.Gender.MALE, Patient.Gender.FEMALE,
+            today.atStartOfDay(), today.minusDays(7).atStartOfDay(), today.minusDays(30).atStartOfDay());
         
-        stats.put("malePatients", patientRepository.countByGender(Patient.Gender.MALE));
-        stats.put("femalePatients", patientRepository.countByGender(Patient.Gender.FEMALE));
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalPatients", row.getTotalPatients());
+        stats.put("activePatients", row.getActivePatients());
+        stats.put("inactivePatients", row.getInactivePatients());
+        stats.put("dischargedPatients", row.getDischargedPatients());
         
-        LocalDate today = LocalDate.now();
-        stats.put("newPatientsToday", patientRepository.countNewPatientsFromDate(today));
-        stats.put("newPatientsThisWeek", patientRepository.countNewPatientsFromDate(today.minusDays(7)));
-        stats.put("newPatientsThisMonth", patientRepository.countNewPatientsFromDate(today.minusDays(30)));
+        stats.put("malePatients", row.getMalePatients());
+        stats.put("femalePatients", row.getFemalePatients());
         
-        return stats;
+        stats.put("newPatientsToday", row.getNewPatientsToday());
+        stats.put("newPatientsThisWeek", row.getNewPatientsThisWeek());
+        stats.put("newPatientsThisMonth", row.getNewPatientsThisMonth());
+        
+        Map<String, Object> result = Collections.unmodifiableMap(stats);
+        statisticsSnapshot = cached ? new StatisticsSnapshot(result, now + STATISTICS_TTL_MILLIS) : null;
+        return result;
+    }
+    
+    void invalidateStatistics() {
+        statisticsSnapshot = null;
+    }
+    
+    private record StatisticsSnapshot(Map<String, Object> stats, long expiresAt) {
     }
     
     // Validation Methods
@@ -109,18 +243,6 @@ public class PatientService {
         return patientRepository.existsByPatientId(patientId);
     }
     
-    // Patient ID Generation
-    private String generatePatientId() {
-        long count = patientRepository.count();
-        String patientId;
-        do {
-            count++;
-            patientId = String.format("P%04d", count);
-        } while (existsByPatientId(patientId));
-        
-        return patientId;
-    }
-    
     // Update patient's last visit
     public void updateLastVisit(Long patientId) {
         Patient patient = findById(patientId);
@@ -140,4 +262,12 @@ public class PatientService {
                 .filter(p -> p.getDateOfBirth().isAfter(minBirthDate) && p.getDateOfBirth().isBefore(maxBirthDate))
                 .toList();
     }
+    
+    // Streams every patient through a read-only cursor; the consumer runs inside the transaction
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Iterable<Patient>> consumer) {
+        try (Stream<Patient> patients = patientRepository.streamAll()) {
+            consumer.accept(entityStreamSupport.clearing(patients));
+        }
+    }
 }
\ No newline at end of file
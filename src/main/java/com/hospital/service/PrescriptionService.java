@@ -6,8 +6,11 @@ import com.hospital.model.User;
 import com.hospital.repository.PrescriptionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PrescriptionService {
@@ -15,6 +18,9 @@ public class PrescriptionService {
     @Autowired
     private PrescriptionRepository prescriptionRepository;
 
+    @Autowired
+    private EntityStreamSupport entityStreamSupport;
+
     public Prescription savePrescription(Prescription prescription) {
         return prescriptionRepository.save(prescription);
     }
@@ -54,4 +60,12 @@ public class PrescriptionService {
     public void deletePrescription(Long id) {
         prescriptionRepository.deleteById(id);
     }
+
+    // Cursor-backed stream for exports; the consumer runs inside the read-only transaction
+    @Transactional(readOnly = true)
+    public void streamByDoctor(User doctor, Consumer<Iterable<Prescription>> consumer) {
+        try (Stream<Prescription> prescriptions = prescriptionRepository.streamByDoctor(doctor)) {
+            consumer.accept(entityStreamSupport.clearing(prescriptions));
+        }
+    }
 }
\ No newline at end of file
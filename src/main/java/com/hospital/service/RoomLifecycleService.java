@@ -0,0 +1,236 @@
+package com.hospital.service;
+
+import com.hospital.model.Room;
+import com.hospital.repository.RoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Room status state machine. Every change goes through transition(), which validates the move, stamps
+// lastCleaned/lastMaintenance and publishes a RoomStatusChangedEvent. The housekeeping queues and the
+// timed promotions (reservation expiry, end of a maintenance window) are driven by those events only.
+// Transitions of one room run one at a time, commit to publish, so listeners see them in commit order;
+// track() also drops events older than the last one it applied, e.g. from BedAllocationEngine.
+@Service
+public class RoomLifecycleService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomLifecycleService.class);
+
+    private static final Map<Room.RoomStatus, Set<Room.RoomStatus>> TRANSITIONS = new EnumMap<>(Room.RoomStatus.class);
+
+    static {
+        TRANSITIONS.put(Room.RoomStatus.AVAILABLE, EnumSet.of(Room.RoomStatus.OCCUPIED, Room.RoomStatus.RESERVED,
+            Room.RoomStatus.CLEANING, Room.RoomStatus.MAINTENANCE, Room.RoomStatus.OUT_OF_ORDER));
+        TRANSITIONS.put(Room.RoomStatus.RESERVED, EnumSet.of(Room.RoomStatus.OCCUPIED, Room.RoomStatus.AVAILABLE,
+            Room.RoomStatus.MAINTENANCE, Room.RoomStatus.OUT_OF_ORDER));
+        TRANSITIONS.put(Room.RoomStatus.OCCUPIED, EnumSet.of(Room.RoomStatus.CLEANING, Room.RoomStatus.OUT_OF_ORDER));
+        TRANSITIONS.put(Room.RoomStatus.CLEANING, EnumSet.of(Room.RoomStatus.AVAILABLE, Room.RoomStatus.MAINTENANCE,
+            Room.RoomStatus.OUT_OF_ORDER));
+        TRANSITIONS.put(Room.RoomStatus.MAINTENANCE, EnumSet.of(Room.RoomStatus.CLEANING, Room.RoomStatus.AVAILABLE,
+            Room.RoomStatus.OUT_OF_ORDER));
+        TRANSITIONS.put(Room.RoomStatus.OUT_OF_ORDER, EnumSet.of(Room.RoomStatus.MAINTENANCE, Room.RoomStatus.CLEANING));
+    }
+
+    // Oldest lastCleaned / lastMaintenance first; never serviced rooms lead the queue
+    private static final Comparator<HousekeepingTask> QUEUE_ORDER = Comparator
+        .comparing(HousekeepingTask::lastServiced, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(HousekeepingTask::roomId);
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BedAllocationEngine bedAllocationEngine;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Value("${hospital.rooms.reservation-hold-minutes:120}")
+    private long reservationHoldMinutes;
+
+    @Value("${hospital.rooms.maintenance-window-minutes:0}")
+    private long maintenanceWindowMinutes;
+
+    private final Map<Room.RoomStatus, ConcurrentSkipListSet<HousekeepingTask>> queues = new EnumMap<>(Room.RoomStatus.class);
+    private final Map<Long, HousekeepingTask> queued = new ConcurrentHashMap<>();
+    private final Map<Long, ScheduledFuture<?>> promotions = new ConcurrentHashMap<>();
+    // Row version of the last event track() applied per room
+    private final Map<Long, Long> trackedVersions = new ConcurrentHashMap<>();
+    // A lock rather than synchronized: the transaction blocks on the database and a monitor would pin a virtual thread
+    private final Map<Long, ReentrantLock> roomLocks = new ConcurrentHashMap<>();
+
+    public RoomLifecycleService() {
+        queues.put(Room.RoomStatus.CLEANING, new ConcurrentSkipListSet<>(QUEUE_ORDER));
+        queues.put(Room.RoomStatus.MAINTENANCE, new ConcurrentSkipListSet<>(QUEUE_ORDER));
+    }
+
+    public record HousekeepingTask(Long roomId, String roomNumber, Room.RoomStatus status,
+                                   LocalDateTime lastServiced, LocalDateTime since) {
+    }
+
+    public static boolean canTransition(Room.RoomStatus from, Room.RoomStatus to) {
+        return from == to || TRANSITIONS.getOrDefault(from, Set.of()).contains(to);
+    }
+
+    public static Set<Room.RoomStatus> allowedTransitions(Room.RoomStatus from) {
+        return TRANSITIONS.getOrDefault(from, Set.of());
+    }
+
+    // Returns null when the room does not exist; throws IllegalStateException for a move the machine forbids
+    public Room transition(Long roomId, Room.RoomStatus target) {
+        return transition(roomId, target, null);
+    }
+
+    // The head of the cleaning queue: the room that has waited longest since it was last cleaned
+    public HousekeepingTask nextRoomToClean() {
+        Iterator<HousekeepingTask> cleaning = queues.get(Room.RoomStatus.CLEANING).iterator();
+        return cleaning.hasNext() ? cleaning.next() : null;
+    }
+
+    public List<HousekeepingTask> getCleaningQueue() {
+        return new ArrayList<>(queues.get(Room.RoomStatus.CLEANING));
+    }
+
+    public List<HousekeepingTask> getMaintenanceQueue() {
+        return new ArrayList<>(queues.get(Room.RoomStatus.MAINTENANCE));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadQueues() {
+        int loaded = 0;
+        for (Room.RoomStatus status : List.of(Room.RoomStatus.CLEANING, Room.RoomStatus.MAINTENANCE, Room.RoomStatus.RESERVED)) {
+            for (Room room : roomRepository.findByStatus(status)) {
+                track(RoomStatusChangedEvent.of(room, null));
+                loaded++;
+            }
+        }
+        log.debug("Loaded {} rooms into housekeeping queues", loaded);
+    }
+
+    @EventListener
+    public void onRoomStatusChanged(RoomStatusChangedEvent event) {
+        track(event);
+    }
+
+    private Room transition(Long roomId, Room.RoomStatus target, Room.RoomStatus expected) {
+        ReentrantLock lock = roomLocks.computeIfAbsent(roomId, id -> new ReentrantLock());
+        lock.lock();
+        try {
+            return transitionLocked(roomId, target, expected);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Room transitionLocked(Long roomId, Room.RoomStatus target, Room.RoomStatus expected) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Room.RoomStatus[] from = new Room.RoomStatus[1];
+        Room saved = transaction.execute(status -> {
+            Room room = roomRepository.findById(roomId).orElse(null);
+            if (room == null || (expected != null && room.getStatus() != expected)) {
+                return null;
+            }
+            from[0] = room.getStatus();
+            if (!canTransition(from[0], target)) {
+                throw new IllegalStateException("Room " + room.getRoomNumber() + " cannot go from " + from[0] + " to " + target);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (from[0] == Room.RoomStatus.CLEANING && target == Room.RoomStatus.AVAILABLE) {
+                room.setLastCleaned(now);
+            }
+            if (from[0] == Room.RoomStatus.MAINTENANCE && target != Room.RoomStatus.MAINTENANCE) {
+                room.setLastMaintenance(now);
+            }
+            if (from[0] == Room.RoomStatus.OCCUPIED && target != Room.RoomStatus.OCCUPIED) {
+                room.setCurrentPatient(null);
+            }
+            room.setStatus(target);
+            room.setUpdatedDate(now);
+            return roomRepository.save(room);
+        });
+
+        if (saved != null && from[0] != target) {
+            bedAllocationEngine.sync(saved);
+            eventPublisher.publishEvent(RoomStatusChangedEvent.of(saved, from[0]));
+        }
+        return saved;
+    }
+
+    // Moves the room into the queue for its new state and schedules its timed promotion, if any
+    private synchronized void track(RoomStatusChangedEvent event) {
+        if (event.version() != null) {
+            Long applied = trackedVersions.get(event.roomId());
+            if (applied != null && event.version() <= applied) {
+                log.debug("Ignoring stale {} event for room {}", event.to(), event.roomNumber());
+                return;
+            }
+            trackedVersions.put(event.roomId(), event.version());
+        }
+        HousekeepingTask previous = queued.remove(event.roomId());
+        if (previous != null) {
+            queues.get(previous.status()).remove(previous);
+        }
+        ScheduledFuture<?> pending = promotions.remove(event.roomId());
+        if (pending != null) {
+            pending.cancel(false);
+        }
+
+        ConcurrentSkipListSet<HousekeepingTask> queue = queues.get(event.to());
+        if (queue != null) {
+            LocalDateTime lastServiced = event.to() == Room.RoomStatus.CLEANING ? event.lastCleaned() : event.lastMaintenance();
+            HousekeepingTask task = new HousekeepingTask(event.roomId(), event.roomNumber(), event.to(), lastServiced,
+                event.changedAt());
+            queued.put(event.roomId(), task);
+            queue.add(task);
+        }
+
+        if (event.to() == Room.RoomStatus.RESERVED && reservationHoldMinutes > 0) {
+            schedulePromotion(event, Room.RoomStatus.AVAILABLE, reservationHoldMinutes);
+        } else if (event.to() == Room.RoomStatus.MAINTENANCE && maintenanceWindowMinutes > 0) {
+            schedulePromotion(event, Room.RoomStatus.CLEANING, maintenanceWindowMinutes);
+        }
+    }
+
+    private void schedulePromotion(RoomStatusChangedEvent event, Room.RoomStatus target, long afterMinutes) {
+        LocalDateTime due = event.changedAt().plusMinutes(afterMinutes);
+        Room.RoomStatus expected = event.to();
+        promotions.put(event.roomId(), taskScheduler.schedule(() -> {
+            try {
+                transition(event.roomId(), target, expected);
+            } catch (RuntimeException e) {
+                log.warn("Could not promote room {} from {} to {}", event.roomNumber(), expected, target, e);
+            }
+        }, due.atZone(ZoneId.systemDefault()).toInstant()));
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class RoomService {
@@ -15,11 +16,19 @@ public class RoomService {
     @Autowired
     private RoomRepository roomRepository;
 
+    @Autowired
+    private BedAllocationEngine bedAllocationEngine;
+
+    @Autowired
+    private RoomLifecycleService roomLifecycleService;
+
     public Room saveRoom(Room room) {
         if (room.getId() != null) {
             room.setUpdatedDate(LocalDateTime.now());
         }
-        return roomRepository.save(room);
+        Room saved = roomRepository.save(room);
+        bedAllocationEngine.sync(saved);
+        return saved;
     }
 
     public Room findById(Long id) {
@@ -76,38 +85,45 @@ public class RoomService {
 
     public void deleteRoom(Long id) {
         roomRepository.deleteById(id);
+        bedAllocationEngine.remove(id);
     }
 
+    // Returns null when the room is not available; concurrent callers cannot both get it
     public Room assignPatient(Long roomId, Long patientId) {
-        Room room = findById(roomId);
-        if (room != null && room.getStatus() == Room.RoomStatus.AVAILABLE) {
-            // This would typically involve patient service to get the patient
-            room.setStatus(Room.RoomStatus.OCCUPIED);
-            room.setUpdatedDate(LocalDateTime.now());
-            return saveRoom(room);
-        }
-        return null;
+        return bedAllocationEngine.assign(roomId, patientId);
+    }
+
+    // Picks the best free room of the type using the configured scoring policy
+    public Room allocateBestRoom(Long patientId, Room.RoomType roomType, Long departmentId) {
+        return bedAllocationEngine.allocateBest(patientId, roomType, departmentId);
+    }
+
+    public Map<String, Object> getAllocationStatistics() {
+        return bedAllocationEngine.getStatistics();
+    }
+
+    // Status changes go through the lifecycle state machine; invalid moves throw IllegalStateException
+    public Room changeStatus(Long roomId, Room.RoomStatus status) {
+        return roomLifecycleService.transition(roomId, status);
     }
 
     public Room releaseRoom(Long roomId) {
-        Room room = findById(roomId);
-        if (room != null) {
-            room.setCurrentPatient(null);
-            room.setStatus(Room.RoomStatus.CLEANING);
-            room.setUpdatedDate(LocalDateTime.now());
-            return saveRoom(room);
-        }
-        return null;
+        return roomLifecycleService.transition(roomId, Room.RoomStatus.CLEANING);
     }
 
     public Room markCleaned(Long roomId) {
-        Room room = findById(roomId);
-        if (room != null) {
-            room.setStatus(Room.RoomStatus.AVAILABLE);
-            room.setLastCleaned(LocalDateTime.now());
-            room.setUpdatedDate(LocalDateTime.now());
-            return saveRoom(room);
-        }
-        return null;
+        return roomLifecycleService.transition(roomId, Room.RoomStatus.AVAILABLE);
+    }
+
+    public RoomLifecycleService.HousekeepingTask nextRoomToClean() {
+        return roomLifecycleService.nextRoomToClean();
+    }
+
+    public List<RoomLifecycleService.HousekeepingTask> getCleaningQueue() {
+        return roomLifecycleService.getCleaningQueue();
+    }
+
+    public List<RoomLifecycleService.HousekeepingTask> getMaintenanceQueue() {
+        return roomLifecycleService.getMaintenanceQueue();
     }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.hospital.service;
+
+import com.hospital.model.Room;
+
+import java.time.LocalDateTime;
+
+// Published after a room status change has been committed. version is the row version it was committed
+// with, so listeners can recognise an event overtaken by a later one.
+public record RoomStatusChangedEvent(Long roomId, String roomNumber, Room.RoomStatus from, Room.RoomStatus to,
+                                     LocalDateTime lastCleaned, LocalDateTime lastMaintenance,
+                                     LocalDateTime changedAt, Long version) {
+
+    public static RoomStatusChangedEvent of(Room room, Room.RoomStatus from) {
+        return new RoomStatusChangedEvent(room.getId(), room.getRoomNumber(), from, room.getStatus(),
+            room.getLastCleaned(), room.getLastMaintenance(),
+            room.getUpdatedDate() != null ? room.getUpdatedDate() : LocalDateTime.now(), room.getVersion());
+    }
+}
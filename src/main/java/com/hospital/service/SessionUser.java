@@ -0,0 +1,93 @@
+package com.hospital.service;
+
+import com.hospital.model.User;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serial;
+import java.io.Serializable;
+
+// What the HTTP session keeps as "loggedInUser": a few immutable fields instead of the User entity and its
+// department graph. Controllers that need the entity for a query use UserService.getReference(id()).
+public record SessionUser(Long id, String email, User.Role role, Long departmentId,
+                          String firstName, String lastName) implements Serializable {
+
+    public static SessionUser of(User user) {
+        return new SessionUser(user.getId(), user.getEmail(), user.getRole(),
+            user.getDepartment() != null ? user.getDepartment().getId() : null,
+            user.getFirstName(), user.getLastName());
+    }
+
+    public static SessionUser of(HospitalUserDetails principal) {
+        return new SessionUser(principal.getId(), principal.getUsername(), principal.getRole(),
+            principal.getDepartmentId(), principal.getFirstName(), principal.getLastName());
+    }
+
+    public String displayName() {
+        return firstName + " " + lastName;
+    }
+
+    public boolean hasRole(User.Role expected) {
+        return role == expected;
+    }
+
+    // Serialized through Form: no class descriptors for the record fields, the role as one byte
+    @Serial
+    private Object writeReplace() {
+        return new Form(this);
+    }
+
+    static final class Form implements Externalizable {
+
+        // 2: names carry a presence flag
+        @Serial
+        private static final long serialVersionUID = 2L;
+
+        private SessionUser user;
+
+        public Form() {
+        }
+
+        private Form(SessionUser user) {
+            this.user = user;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeLong(user.id());
+            out.writeByte(user.role().ordinal());
+            out.writeLong(user.departmentId() != null ? user.departmentId() : -1);
+            out.writeUTF(user.email());
+            writeNullable(out, user.firstName());
+            writeNullable(out, user.lastName());
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            long id = in.readLong();
+            User.Role role = User.Role.values()[in.readByte()];
+            long departmentId = in.readLong();
+            user = new SessionUser(id, in.readUTF(), role, departmentId >= 0 ? departmentId : null,
+                readNullable(in), readNullable(in));
+        }
+
+        // Presence flag first, so a null name comes back as null rather than ""
+        private static void writeNullable(ObjectOutput out, String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        private static String readNullable(ObjectInput in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+
+        @Serial
+        private Object readResolve() {
+            return user;
+        }
+    }
+}
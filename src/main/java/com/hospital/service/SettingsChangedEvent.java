@@ -0,0 +1,17 @@
+package com.hospital.service;
+
+import java.util.Set;
+
+// Published after a new settings version has been saved and made live
+public record SettingsChangedEvent(SettingsSnapshot previous, SettingsSnapshot current, Set<String> changedKeys) {
+
+    // True when any changed key starts with the prefix, e.g. "performance."
+    public boolean changed(String prefix) {
+        for (String key : changedKeys) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
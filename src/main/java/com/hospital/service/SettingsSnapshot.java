@@ -0,0 +1,33 @@
+package com.hospital.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Immutable view of every system setting at one version; safe to hold and read from any thread
+public record SettingsSnapshot(long version, Map<String, String> values, LocalDateTime updatedAt) {
+
+    public SettingsSnapshot {
+        values = Map.copyOf(values);
+    }
+
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    public boolean getBoolean(String key) {
+        return Boolean.parseBoolean(values.get(key));
+    }
+
+    // Falls back to the default when the value is missing or not a number
+    public int getInt(String key, int defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.hospital.service;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.Department;
+import com.hospital.model.User;
+import com.hospital.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Earliest free appointment windows across every active doctor of a department.
+// Each doctor's calendar is flattened into an occupancy bitmap and scanned on the fork/join pool.
+@Service
+public class SlotSearchService {
+
+    // Longest date range one search may cover
+    private static final int MAX_SEARCH_DAYS = 31;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppointmentSlotIndex appointmentSlotIndex;
+
+    public List<Map<String, Object>> findFreeSlots(Department department, Appointment.AppointmentType type,
+                                                   LocalDate from, LocalDate to, int durationMinutes, int limit) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_SEARCH_DAYS) {
+            throw new IllegalArgumentException("Date range must cover 1 to " + MAX_SEARCH_DAYS + " days");
+        }
+        int slotMinutes = appointmentSlotIndex.getSlotMinutes();
+        int slotsNeeded = Math.max(1, (durationMinutes + slotMinutes - 1) / slotMinutes);
+        if (slotsNeeded > appointmentSlotIndex.slotsPerDay()) {
+            throw new IllegalArgumentException("Duration is longer than a working day");
+        }
+
+        List<User> doctors = userRepository.findByRoleAndDepartmentAndStatus(
+            User.Role.DOCTOR, department, User.UserStatus.ACTIVE);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Every doctor contributes at most `limit` options, so the merged top-K stays small
+        return doctors.parallelStream()
+            .flatMap(doctor -> scan(doctor, from, to, slotsNeeded, limit, now).stream())
+            .sorted(Comparator.comparing(SlotOption::start).thenComparing(SlotOption::doctorName))
+            .limit(limit)
+            .map(option -> option.toMap(slotsNeeded * slotMinutes, type))
+            .toList();
+    }
+
+    // Finds the earliest runs of slotsNeeded clear bits that stay within one working day
+    private List<SlotOption> scan(User doctor, LocalDate from, LocalDate to, int slotsNeeded, int limit,
+                                  LocalDateTime now) {
+        BitSet occupied = appointmentSlotIndex.occupancy(doctor.getId(), from, to);
+        int perDay = appointmentSlotIndex.slotsPerDay();
+        int total = (int) (ChronoUnit.DAYS.between(from, to) + 1) * perDay;
+        String doctorName = "Dr. " + doctor.getFirstName() + " " + doctor.getLastName();
+
+        List<SlotOption> options = new ArrayList<>(limit);
+        int bucket = occupied.nextClearBit(0);
+        while (bucket < total && options.size() < limit) {
+            int dayEnd = (bucket / perDay + 1) * perDay;
+            if (bucket + slotsNeeded > dayEnd) {
+                bucket = occupied.nextClearBit(dayEnd);
+                continue;
+            }
+            int taken = occupied.nextSetBit(bucket);
+            if (taken >= 0 && taken < bucket + slotsNeeded) {
+                bucket = occupied.nextClearBit(taken);
+                continue;
+            }
+            LocalDateTime start = appointmentSlotIndex.slotStart(from, bucket);
+            if (!start.isBefore(now)) {
+                options.add(new SlotOption(doctor.getId(), doctorName, start));
+            }
+            bucket++;
+        }
+        return options;
+    }
+
+    private record SlotOption(Long doctorId, String doctorName, LocalDateTime start) {
+
+        private Map<String, Object> toMap(int minutes, Appointment.AppointmentType type) {
+            Map<String, Object> option = new LinkedHashMap<>();
+            option.put("doctorId", doctorId);
+            option.put("doctorName", doctorName);
+            option.put("start", start);
+            option.put("end", start.plusMinutes(minutes));
+            option.put("appointmentType", type);
+            return option;
+        }
+    }
+}
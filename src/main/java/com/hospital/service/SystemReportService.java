@@ -1,197 +1,252 @@
 package com.hospital.service;
 
 import com.hospital.model.*;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.DepartmentRepository;
+import com.hospital.repository.MedicalRecordRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.repository.PrescriptionRepository;
+import com.hospital.repository.RoomRepository;
+import com.hospital.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class SystemReportService {
 
-    @Autowired
-    private UserService userService;
-    
+    private static final Logger log = LoggerFactory.getLogger(SystemReportService.class);
+
     @Autowired
     private DepartmentService departmentService;
-    
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
     @Autowired
-    private PatientService patientService;
-    
+    private AppointmentRepository appointmentRepository;
+
     @Autowired
-    private AppointmentService appointmentService;
-    
+    private MedicalRecordRepository medicalRecordRepository;
+
     @Autowired
-    private MedicalRecordService medicalRecordService;
-    
+    private PrescriptionRepository prescriptionRepository;
+
     @Autowired
-    private PrescriptionService prescriptionService;
-    
+    private RoomRepository roomRepository;
+
     @Autowired
-    private RoomService roomService;
+    private CacheSettings cacheSettings;
+
+    // Latest published report; swapped whole so readers always see one consistent snapshot
+    private final AtomicReference<SystemReportSnapshot> snapshot = new AtomicReference<>();
+
+    public SystemReportSnapshot getSnapshot() {
+        SystemReportSnapshot current = snapshot.get();
+        if (current == null || !cacheSettings.isEnabled()) {
+            refresh();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${hospital.reports.refresh-interval-ms:60000}",
+               fixedDelayString = "${hospital.reports.refresh-interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        Map<String, Object> report = generateFullReport();
+        long computationMillis = System.currentTimeMillis() - start;
+        snapshot.set(new SystemReportSnapshot(report, System.currentTimeMillis(), computationMillis));
+        log.debug("System report refreshed in {} ms", computationMillis);
+    }
+
+    // All report sections in display order, as exported by the system report PDF
+    public Map<String, Object> generateFullReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("systemOverview", generateSystemOverviewReport());
+        report.put("departmentReport", generateDepartmentReport());
+        report.put("roomUtilization", generateRoomUtilizationReport());
+        report.put("userActivity", generateUserActivityReport());
+        report.put("appointmentReport", generateAppointmentReport());
+        return report;
+    }
 
     public Map<String, Object> generateSystemOverviewReport() {
         Map<String, Object> report = new HashMap<>();
-        
+
         // User Statistics
-        report.put("totalUsers", userService.getTotalUsers());
-        report.put("totalDoctors", userService.getTotalDoctors());
-        report.put("totalAdmins", userService.getTotalAdmins());
-        
+        Map<String, Long> roles = grouped(userRepository.countGroupedByRole(), User.Role.values());
+        report.put("totalUsers", sum(roles));
+        report.put("totalDoctors", roles.get(User.Role.DOCTOR.name()));
+        report.put("totalAdmins", roles.get(User.Role.ADMIN.name()));
+
         // Department Statistics
         report.put("totalDepartments", departmentService.getTotalDepartments());
         report.put("activeDepartments", departmentService.getActiveDepartments());
-        
+
         // Room Statistics
-        report.put("totalRooms", roomService.getTotalRooms());
-        report.put("availableRooms", roomService.countByStatus(Room.RoomStatus.AVAILABLE));
-        report.put("occupiedRooms", roomService.countByStatus(Room.RoomStatus.OCCUPIED));
-        report.put("maintenanceRooms", roomService.countByStatus(Room.RoomStatus.MAINTENANCE));
-        
+        Map<String, Long> rooms = grouped(roomRepository.countGroupedByStatus(), Room.RoomStatus.values());
+        report.put("totalRooms", sum(rooms));
+        report.put("availableRooms", rooms.get(Room.RoomStatus.AVAILABLE.name()));
+        report.put("occupiedRooms", rooms.get(Room.RoomStatus.OCCUPIED.name()));
+        report.put("maintenanceRooms", rooms.get(Room.RoomStatus.MAINTENANCE.name()));
+
         // Patient Statistics
-        report.put("totalPatients", patientService.findAll().size());
-        
+        report.put("totalPatients", patientRepository.count());
+
         // Appointment Statistics
-        report.put("totalAppointments", appointmentService.findByStatus(Appointment.Status.SCHEDULED).size());
+        report.put("totalAppointments", appointmentRepository.count());
+        report.put("scheduledAppointments", appointmentRepository.countByStatus(Appointment.Status.SCHEDULED));
         report.put("todayAppointments", getTodayAppointmentsCount());
-        
+
         // Medical Records Statistics
-        report.put("totalMedicalRecords", getAllMedicalRecordsCount());
-        
+        report.put("totalMedicalRecords", medicalRecordRepository.count());
+
         // Prescription Statistics
-        report.put("activePrescriptions", prescriptionService.findByStatus(Prescription.PrescriptionStatus.ACTIVE).size());
-        
+        report.put("activePrescriptions", prescriptionRepository.countByStatus(Prescription.PrescriptionStatus.ACTIVE));
+
         return report;
     }
 
     public Map<String, Object> generateDepartmentReport() {
         Map<String, Object> report = new HashMap<>();
-        List<Department> departments = departmentService.findAll();
-        
-        Map<String, Object> departmentStats = new HashMap<>();
-        for (Department dept : departments) {
+        List<DepartmentRepository.DepartmentSummary> departments = departmentService.getDepartmentSummaries();
+
+        Map<String, Object> departmentStats = new LinkedHashMap<>();
+        for (DepartmentRepository.DepartmentSummary dept : departments) {
             Map<String, Object> deptData = new HashMap<>();
             deptData.put("name", dept.getName());
             deptData.put("status", dept.getStatus());
-            deptData.put("doctorCount", userService.findByRole(User.Role.DOCTOR).stream()
-                .filter(u -> u.getDepartment() != null && u.getDepartment().getId().equals(dept.getId()))
-                .count());
-            deptData.put("roomCount", roomService.countByDepartment(dept));
-            deptData.put("headOfDepartment", dept.getHeadOfDepartment() != null ? 
-                dept.getHeadOfDepartment().getFirstName() + " " + dept.getHeadOfDepartment().getLastName() : "Not Assigned");
-            
+            deptData.put("doctorCount", dept.getDoctorCount());
+            deptData.put("roomCount", dept.getRoomCount());
+            deptData.put("headOfDepartment", dept.getHeadFirstName() != null ?
+                dept.getHeadFirstName() + " " + dept.getHeadLastName() : "Not Assigned");
+
             departmentStats.put(dept.getId().toString(), deptData);
         }
-        
+
         report.put("departments", departmentStats);
         report.put("totalDepartments", departments.size());
-        
+
         return report;
     }
 
     public Map<String, Object> generateRoomUtilizationReport() {
         Map<String, Object> report = new HashMap<>();
-        
+
         // Room status distribution
-        Map<String, Long> statusDistribution = new HashMap<>();
-        for (Room.RoomStatus status : Room.RoomStatus.values()) {
-            statusDistribution.put(status.name(), roomService.countByStatus(status));
-        }
+        Map<String, Long> statusDistribution = grouped(roomRepository.countGroupedByStatus(), Room.RoomStatus.values());
         report.put("statusDistribution", statusDistribution);
-        
+
         // Room type distribution
-        Map<String, Long> typeDistribution = new HashMap<>();
-        for (Room.RoomType type : Room.RoomType.values()) {
-            typeDistribution.put(type.name(), roomService.countByRoomType(type));
-        }
-        report.put("typeDistribution", typeDistribution);
-        
+        report.put("typeDistribution", grouped(roomRepository.countGroupedByRoomType(), Room.RoomType.values()));
+
         // Occupancy rate
-        long totalRooms = roomService.getTotalRooms();
-        long occupiedRooms = roomService.countByStatus(Room.RoomStatus.OCCUPIED);
+        long totalRooms = sum(statusDistribution);
+        long occupiedRooms = statusDistribution.get(Room.RoomStatus.OCCUPIED.name());
         double occupancyRate = totalRooms > 0 ? (double) occupiedRooms / totalRooms * 100 : 0;
         report.put("occupancyRate", Math.round(occupancyRate * 100.0) / 100.0);
-        
+
         report.put("totalRooms", totalRooms);
         report.put("occupiedRooms", occupiedRooms);
-        report.put("availableRooms", roomService.countByStatus(Room.RoomStatus.AVAILABLE));
-        
+        report.put("availableRooms", statusDistribution.get(Room.RoomStatus.AVAILABLE.name()));
+
         return report;
     }
 
     public Map<String, Object> generateUserActivityReport() {
         Map<String, Object> report = new HashMap<>();
-        
-        List<User> allUsers = userService.getAllUsers();
-        
+
         // User status distribution
-        Map<String, Long> statusDistribution = new HashMap<>();
-        statusDistribution.put("ACTIVE", allUsers.stream().filter(u -> u.getStatus() == User.UserStatus.ACTIVE).count());
-        statusDistribution.put("INACTIVE", allUsers.stream().filter(u -> u.getStatus() == User.UserStatus.INACTIVE).count());
-        statusDistribution.put("SUSPENDED", allUsers.stream().filter(u -> u.getStatus() == User.UserStatus.SUSPENDED).count());
-        
+        Map<String, Long> statusDistribution = grouped(userRepository.countGroupedByStatus(), User.UserStatus.values());
         report.put("userStatusDistribution", statusDistribution);
-        
+
         // Role distribution
-        Map<String, Long> roleDistribution = new HashMap<>();
-        roleDistribution.put("DOCTOR", userService.getTotalDoctors());
-        roleDistribution.put("ADMIN", userService.getTotalAdmins());
-        
-        report.put("roleDistribution", roleDistribution);
-        
+        report.put("roleDistribution", grouped(userRepository.countGroupedByRole(), User.Role.values()));
+
         // Recent registrations (last 30 days)
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        long recentRegistrations = allUsers.stream()
-            .filter(u -> u.getCreatedDate() != null && u.getCreatedDate().isAfter(thirtyDaysAgo))
-            .count();
-        
-        report.put("recentRegistrations", recentRegistrations);
-        report.put("totalUsers", allUsers.size());
-        
+        report.put("recentRegistrations", userRepository.countByCreatedDateAfter(LocalDateTime.now().minusDays(30)));
+        report.put("totalUsers", sum(statusDistribution));
+
         return report;
     }
 
     public Map<String, Object> generateAppointmentReport() {
         Map<String, Object> report = new HashMap<>();
-        
-        // This would typically get data from appointment service
-        // For now, we'll create sample data structure
+
         report.put("todayAppointments", getTodayAppointmentsCount());
         report.put("weeklyAppointments", getWeeklyAppointmentsCount());
         report.put("monthlyAppointments", getMonthlyAppointmentsCount());
-        
+
         // Appointment status distribution
-        Map<String, Long> statusDistribution = new HashMap<>();
-        for (Appointment.Status status : Appointment.Status.values()) {
-            // This would use actual appointment service methods
-            statusDistribution.put(status.name(), 0L);
-        }
-        report.put("appointmentStatusDistribution", statusDistribution);
-        
+        report.put("appointmentStatusDistribution",
+            grouped(appointmentRepository.countGroupedByStatus(), Appointment.Status.values()));
+
         return report;
     }
 
     private long getTodayAppointmentsCount() {
-        // This would typically use appointment service to get today's appointments
-        return 0L; // Placeholder
+        LocalDate today = LocalDate.now();
+        return countAppointmentsBetween(today, today.plusDays(1));
     }
 
+    // Current week, Monday to Sunday
     private long getWeeklyAppointmentsCount() {
-        // This would typically use appointment service to get this week's appointments
-        return 0L; // Placeholder
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return countAppointmentsBetween(monday, monday.plusWeeks(1));
     }
 
+    // Current calendar month
     private long getMonthlyAppointmentsCount() {
-        // This would typically use appointment service to get this month's appointments
-        return 0L; // Placeholder
+        LocalDate first = LocalDate.now().withDayOfMonth(1);
+        return countAppointmentsBetween(first, first.plusMonths(1));
     }
 
-    private long getAllMedicalRecordsCount() {
-        // This would typically use medical record service
-        return 0L; // Placeholder
+    // BETWEEN is inclusive, so stop one nanosecond before the next period starts
+    private long countAppointmentsBetween(LocalDate from, LocalDate until) {
+        return appointmentRepository.countByAppointmentDateTimeBetween(
+            from.atStartOfDay(), until.atStartOfDay().minusNanos(1));
+    }
+
+    // Turns (enum, count) rows into a map with an entry for every constant, so templates can address any of them
+    private Map<String, Long> grouped(List<Object[]> rows, Enum<?>[] values) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Enum<?> value : values) {
+            counts.put(value.name(), 0L);
+        }
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                counts.put(((Enum<?>) row[0]).name(), ((Number) row[1]).longValue());
+            }
+        }
+        return counts;
+    }
+
+    private long sum(Map<String, Long> counts) {
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        return total;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.hospital.service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Immutable, fully computed system report; readers never trigger queries
+public final class SystemReportSnapshot {
+
+    private final Map<String, Object> report;
+    private final LocalDateTime generatedAt;
+    private final long generatedAtMillis;
+    private final long computationMillis;
+
+    public SystemReportSnapshot(Map<String, Object> report, long generatedAtMillis, long computationMillis) {
+        this.report = freeze(report);
+        this.generatedAt = LocalDateTime.now();
+        this.generatedAtMillis = generatedAtMillis;
+        this.computationMillis = computationMillis;
+    }
+
+    public Map<String, Object> getReport() {
+        return report;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getSection(String name) {
+        return (Map<String, Object>) report.get(name);
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public long getComputationMillis() {
+        return computationMillis;
+    }
+
+    public long getStalenessSeconds() {
+        return (System.currentTimeMillis() - generatedAtMillis) / 1000;
+    }
+
+    // Copies nested maps so later changes to the source cannot leak into a published snapshot
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> freeze(Map<String, ?> source) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> entry : source.entrySet()) {
+            Object value = entry.getValue();
+            copy.put(entry.getKey(), value instanceof Map ? freeze((Map<String, ?>) value) : value);
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+}
@@ -1,20 +1,73 @@
 package com.hospital.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.model.SettingsRevision;
+import com.hospital.repository.SettingsRevisionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import java.util.*;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
+// Settings live in an immutable SettingsSnapshot that writers replace as a whole, so readers never lock
+// and never see half an update. Each write is saved as a new SettingsRevision before it goes live, and
+// a SettingsChangedEvent tells consumers to pick up the values they cache.
 @Service
 public class SystemSettingsService {
 
-    // In a real application, these would be stored in database or configuration files
-    private Map<String, String> systemSettings = new HashMap<>();
-    
-    public SystemSettingsService() {
-        initializeDefaultSettings();
+    private static final Logger log = LoggerFactory.getLogger(SystemSettingsService.class);
+
+    private static final TypeReference<Map<String, String>> SETTINGS_TYPE = new TypeReference<>() {
+    };
+
+    private static final Map<String, String> DEFAULTS = Collections.unmodifiableMap(defaultSettings());
+
+    @Autowired
+    private SettingsRevisionRepository settingsRevisionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicReference<SettingsSnapshot> current =
+        new AtomicReference<>(new SettingsSnapshot(0, DEFAULTS, LocalDateTime.now()));
+
+    // Writers are serialized; the revision insert blocks, hence a lock rather than a monitor
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @PostConstruct
+    public void load() {
+        settingsRevisionRepository.findTopByOrderByVersionDesc().ifPresent(revision -> {
+            current.set(read(revision));
+            log.info("Loaded system settings version {}", revision.getVersion());
+        });
     }
 
-    private void initializeDefaultSettings() {
+    private SettingsSnapshot read(SettingsRevision revision) {
+        try {
+            // Defaults first so settings added since that revision was saved are present
+            Map<String, String> values = new HashMap<>(DEFAULTS);
+            values.putAll(objectMapper.readValue(revision.getSettings(), SETTINGS_TYPE));
+            return new SettingsSnapshot(revision.getVersion(), values, revision.getCreatedDate());
+        } catch (JsonProcessingException e) {
+            log.error("Could not read system settings version {}, using defaults", revision.getVersion(), e);
+            return new SettingsSnapshot(revision.getVersion(), DEFAULTS, LocalDateTime.now());
+        }
+    }
+
+    private static Map<String, String> defaultSettings() {
+        Map<String, String> systemSettings = new HashMap<>();
+
         // General Settings
         systemSettings.put("hospital.name", "City General Hospital");
         systemSettings.put("hospital.address", "123 Medical Center Drive, Healthcare City");
@@ -57,23 +110,39 @@ public class SystemSettingsService {
         systemSettings.put("integration.apiEnabled", "true");
         systemSettings.put("integration.webhooksEnabled", "false");
         systemSettings.put("integration.externalSystems", "none");
+        return systemSettings;
+    }
+
+    public SettingsSnapshot snapshot() {
+        return current.get();
+    }
+
+    public long getVersion() {
+        return current.get().version();
     }
 
     public Map<String, Object> getAllSettings() {
+        // Every category from the same version
+        Map<String, String> systemSettings = current.get().values();
         Map<String, Object> categorizedSettings = new HashMap<>();
         
-        categorizedSettings.put("general", getGeneralSettings());
-        categorizedSettings.put("system", getSystemSettings());
-        categorizedSettings.put("security", getSecuritySettings());
-        categorizedSettings.put("notifications", getNotificationSettings());
-        categorizedSettings.put("backup", getBackupSettings());
-        categorizedSettings.put("performance", getPerformanceSettings());
-        categorizedSettings.put("integration", getIntegrationSettings());
+        categorizedSettings.put("general", getGeneralSettings(systemSettings));
+        categorizedSettings.put("system", getSystemSettings(systemSettings));
+        categorizedSettings.put("security", getSecuritySettings(systemSettings));
+        categorizedSettings.put("notifications", getNotificationSettings(systemSettings));
+        categorizedSettings.put("backup", getBackupSettings(systemSettings));
+        categorizedSettings.put("performance", getPerformanceSettings(systemSettings));
+        categorizedSettings.put("integration", getIntegrationSettings(systemSettings));
+        categorizedSettings.put("version", current.get().version());
         
         return categorizedSettings;
     }
 
     public Map<String, String> getGeneralSettings() {
+        return getGeneralSettings(current.get().values());
+    }
+
+    private Map<String, String> getGeneralSettings(Map<String, String> systemSettings) {
         Map<String, String> general = new HashMap<>();
         general.put("hospitalName", systemSettings.get("hospital.name"));
         general.put("hospitalAddress", systemSettings.get("hospital.address"));
@@ -84,6 +153,10 @@ public class SystemSettingsService {
     }
 
     public Map<String, String> getSystemSettings() {
+        return getSystemSettings(current.get().values());
+    }
+
+    private Map<String, String> getSystemSettings(Map<String, String> systemSettings) {
         Map<String, String> system = new HashMap<>();
         system.put("timezone", systemSettings.get("system.timezone"));
         system.put("dateFormat", systemSettings.get("system.dateFormat"));
@@ -94,6 +167,10 @@ public class SystemSettingsService {
     }
 
     public Map<String, String> getSecuritySettings() {
+        return getSecuritySettings(current.get().values());
+    }
+
+    private Map<String, String> getSecuritySettings(Map<String, String> systemSettings) {
         Map<String, String> security = new HashMap<>();
         security.put("sessionTimeout", systemSettings.get("security.sessionTimeout"));
         security.put("passwordMinLength", systemSettings.get("security.passwordMinLength"));
@@ -104,6 +181,10 @@ public class SystemSettingsService {
     }
 
     public Map<String, String> getNotificationSettings() {
+        return getNotificationSettings(current.get().values());
+    }
+
+    private Map<String, String> getNotificationSettings(Map<String, String> systemSettings) {
         Map<String, String> notifications = new HashMap<>();
         notifications.put("emailEnabled", systemSettings.get("notifications.email.enabled"));
         notifications.put("smsEnabled", systemSettings.get("notifications.sms.enabled"));
@@ -113,6 +194,10 @@ public class SystemSettingsService {
     }
 
     public Map<String, String> getBackupSettings() {
+        return getBackupSettings(current.get().values());
+    }
+
+    private Map<String, String> getBackupSettings(Map<String, String> systemSettings) {
         Map<String, String> backup = new HashMap<>();
         backup.put("autoBackup", systemSettings.get("backup.autoBackup"));
         backup.put("frequency", systemSettings.get("backup.frequency"));
@@ -122,6 +207,10 @@ public class SystemSettingsService {
     }
 
     public Map<String, String> getPerformanceSettings() {
+        return getPerformanceSettings(current.get().values());
+    }
+
+    private Map<String, String> getPerformanceSettings(Map<String, String> systemSettings) {
         Map<String, String> performance = new HashMap<>();
         performance.put("cacheEnabled", systemSettings.get("performance.cacheEnabled"));
         performance.put("maxConcurrentUsers", systemSettings.get("performance.maxConcurrentUsers"));
@@ -130,6 +219,10 @@ public class SystemSettingsService {
     }
 
     public Map<String, String> getIntegrationSettings() {
+        return getIntegrationSettings(current.get().values());
+    }
+
+    private Map<String, String> getIntegrationSettings(Map<String, String> systemSettings) {
         Map<String, String> integration = new HashMap<>();
         integration.put("apiEnabled", systemSettings.get("integration.apiEnabled"));
         integration.put("webhooksEnabled", systemSettings.get("integration.webhooksEnabled"));
@@ -138,26 +231,15 @@ public class SystemSettingsService {
     }
 
     public boolean updateSetting(String category, String key, String value) {
-        try {
-            String settingKey = category + "." + key;
-            systemSettings.put(settingKey, value);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return updateMultipleSettings(Map.of(category + "." + key, value));
     }
 
     public boolean updateMultipleSettings(Map<String, String> settings) {
-        try {
-            systemSettings.putAll(settings);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return apply(settings, false);
     }
 
     public String getSetting(String key) {
-        return systemSettings.get(key);
+        return current.get().get(key);
     }
 
     public Map<String, Object> getSystemInfo() {
@@ -256,13 +338,7 @@ public class SystemSettingsService {
     }
 
     public boolean resetToDefaults() {
-        try {
-            systemSettings.clear();
-            initializeDefaultSettings();
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return apply(DEFAULTS, true);
     }
 
     public boolean exportSettings() {
@@ -275,11 +351,68 @@ public class SystemSettingsService {
     }
 
     public boolean importSettings(Map<String, String> importedSettings) {
+        return apply(importedSettings, false);
+    }
+
+    // Builds the next version, saves it, then swaps it in; a failed save leaves the live version untouched.
+    // A version already saved by another writer throws IllegalStateException after catching up to it.
+    // Keys that are not known settings (e.g. other form fields) are ignored.
+    private boolean apply(Map<String, String> changes, boolean replace) {
+        writeLock.lock();
         try {
-            systemSettings.putAll(importedSettings);
+            SettingsSnapshot previous = current.get();
+            Map<String, String> values = new HashMap<>(replace ? DEFAULTS : previous.values());
+            for (Map.Entry<String, String> change : changes.entrySet()) {
+                if (DEFAULTS.containsKey(change.getKey()) && change.getValue() != null) {
+                    values.put(change.getKey(), change.getValue().trim());
+                }
+            }
+            Set<String> changedKeys = new HashSet<>();
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                if (!value.getValue().equals(previous.get(value.getKey()))) {
+                    changedKeys.add(value.getKey());
+                }
+            }
+            if (changedKeys.isEmpty()) {
+                return true;
+            }
+
+            SettingsSnapshot next = new SettingsSnapshot(previous.version() + 1, values, LocalDateTime.now());
+            try {
+                settingsRevisionRepository.insert(next.version(),
+                    objectMapper.writeValueAsString(new TreeMap<>(next.values())), next.updatedAt());
+            } catch (DataIntegrityViolationException e) {
+                // Another node saved this version first; take its settings and let the user redo the change
+                catchUp(previous);
+                throw new IllegalStateException("System settings were changed elsewhere (version " + next.version()
+                    + "); review the current values and apply your change again", e);
+            } catch (Exception e) {
+                log.error("Could not save system settings version {}", next.version(), e);
+                return false;
+            }
+            current.set(next);
+            log.info("System settings version {} saved, changed {}", next.version(), changedKeys);
+            // Still under the lock so listeners see versions in order
+            eventPublisher.publishEvent(new SettingsChangedEvent(previous, next, Set.copyOf(changedKeys)));
             return true;
-        } catch (Exception e) {
-            return false;
+        } finally {
+            writeLock.unlock();
         }
     }
-}
\ No newline at end of file
+
+    // Caller holds writeLock; moves to the newest saved revision and tells consumers what it changed
+    private void catchUp(SettingsSnapshot previous) {
+        settingsRevisionRepository.findTopByOrderByVersionDesc().ifPresent(revision -> {
+            SettingsSnapshot latest = read(revision);
+            Set<String> changedKeys = new HashSet<>();
+            for (Map.Entry<String, String> value : latest.values().entrySet()) {
+                if (!value.getValue().equals(previous.get(value.getKey()))) {
+                    changedKeys.add(value.getKey());
+                }
+            }
+            current.set(latest);
+            log.warn("System settings version {} was saved elsewhere; now at that version", latest.version());
+            eventPublisher.publishEvent(new SettingsChangedEvent(previous, latest, Set.copyOf(changedKeys)));
+        });
+    }
+}
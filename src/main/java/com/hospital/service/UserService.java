@@ -1,5 +1,6 @@
 package com.hospital.service;
 
+import com.hospital.config.PooledPasswordEncoder;
 import com.hospital.model.User;
 import com.hospital.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +16,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private UserSnapshotCache userSnapshotCache;
+    
     private static final String ADMIN_KEY = "HOSPITAL_ADMIN";
     
     public User registerUser(String firstName, String lastName, String email, String password, User.Role role) {
@@ -44,6 +48,27 @@ public class UserService {
         return passwordEncoder.matches(rawPassword, encodedPassword);
     }
     
+    // Checks the password and, when it matches a hash made at a different BCrypt cost, stores a fresh hash
+    public boolean validatePassword(User user, String rawPassword) {
+        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+            return false;
+        }
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            String rehashed = passwordEncoder.encode(rawPassword);
+            updatePasswordHash(user.getEmail(), rehashed);
+            user.setPassword(rehashed);
+        }
+        return true;
+    }
+    
+    public void updatePasswordHash(String email, String encodedPassword) {
+        if (userRepository.updatePassword(email, encodedPassword) > 0
+                && passwordEncoder instanceof PooledPasswordEncoder pooled) {
+            pooled.recordRehash();
+        }
+        userSnapshotCache.evict(email);
+    }
+    
     public long getTotalUsers() {
         return userRepository.count();
     }
@@ -68,6 +93,11 @@ public class UserService {
         return userRepository.findById(id).orElse(null);
     }
     
+    // Uninitialized proxy for use as a query parameter or association; does not hit the database
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+    
     public User createUser(User user) {
         if (userRepository.existsByEmail(user.getEmail())) {
             throw new RuntimeException("Email already exists");
@@ -78,11 +108,14 @@ public class UserService {
     }
     
     public User updateUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userSnapshotCache.evict(saved);
+        return saved;
     }
     
     public void deleteUser(Long userId) {
         userRepository.deleteById(userId);
+        userSnapshotCache.evict(userId);
     }
     
     public java.util.List<User> findByRole(User.Role role) {
@@ -0,0 +1,25 @@
+package com.hospital.service;
+
+import com.hospital.model.User;
+
+// Detached, immutable copy of the user columns needed for authorization checks. The password hash stays
+// out of it since the snapshot is cached and handed to templates; see UserSnapshotCache.getCredentials.
+public record UserSnapshot(Long id, String email, User.Role role, User.UserStatus status,
+                           Long departmentId, String firstName, String lastName) {
+
+    public static UserSnapshot of(User user) {
+        // getId() on the lazy department proxy does not load it
+        return new UserSnapshot(user.getId(), user.getEmail(), user.getRole(), user.getStatus(),
+            user.getDepartment() != null ? user.getDepartment().getId() : null,
+            user.getFirstName(), user.getLastName());
+    }
+
+    // Rows from before the status column was introduced have it null and count as active
+    public boolean isActive() {
+        return status == null || status == User.UserStatus.ACTIVE;
+    }
+
+    public String fullName() {
+        return firstName + " " + lastName;
+    }
+}
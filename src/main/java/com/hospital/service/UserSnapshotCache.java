@@ -0,0 +1,122 @@
+package com.hospital.service;
+
+import com.hospital.model.User;
+import com.hospital.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bounded, time-limited cache of UserSnapshots by email and by id. UserService evicts an entry whenever
+// it writes that user; the TTL only bounds how long a change made outside the service can go unseen.
+@Component
+public class UserSnapshotCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${hospital.users.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${hospital.users.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<String, Entry> byEmail = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+
+    private record Entry(UserSnapshot user, String passwordHash, long expiresAt) {
+    }
+
+    // Only for CustomUserDetailsService; toString leaves the hash out
+    record Credentials(UserSnapshot user, String passwordHash) {
+        @Override
+        public String toString() {
+            return "Credentials[user=" + user + "]";
+        }
+    }
+
+    // Null when no user has that email
+    Credentials getCredentials(String email) {
+        Entry entry = entryByEmail(email);
+        return entry != null ? new Credentials(entry.user(), entry.passwordHash()) : null;
+    }
+
+    public UserSnapshot getById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        Entry entry = byId.get(id);
+        if (entry != null && System.currentTimeMillis() < entry.expiresAt()) {
+            return entry.user();
+        }
+        return userRepository.findById(id).map(this::put).map(Entry::user).orElse(null);
+    }
+
+    public void evict(Long id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            byEmail.remove(entry.user().email(), entry);
+        }
+    }
+
+    // Also drops the entry under a previous email when the address itself changed
+    public void evict(User user) {
+        if (user.getId() != null) {
+            evict(user.getId());
+        }
+        if (user.getEmail() != null) {
+            evict(user.getEmail());
+        }
+    }
+
+    public void evict(String email) {
+        Entry entry = byEmail.remove(email);
+        if (entry != null) {
+            byId.remove(entry.user().id(), entry);
+        }
+    }
+
+    private Entry entryByEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        Entry entry = byEmail.get(email);
+        if (entry != null && System.currentTimeMillis() < entry.expiresAt()) {
+            return entry;
+        }
+        return userRepository.findByEmail(email).map(this::put).orElse(null);
+    }
+
+    private Entry put(User user) {
+        UserSnapshot snapshot = UserSnapshot.of(user);
+        Entry entry = new Entry(snapshot, user.getPassword(), System.currentTimeMillis() + ttlSeconds * 1000);
+        evict(snapshot.id());
+        byId.put(snapshot.id(), entry);
+        byEmail.put(snapshot.email(), entry);
+        if (byId.size() > maxEntries) {
+            trim();
+        }
+        return entry;
+    }
+
+    // Drops expired entries, then the ones closest to expiring, until the cache is back under its bound
+    private synchronized void trim() {
+        long now = System.currentTimeMillis();
+        List<Entry> entries = new ArrayList<>(byId.values());
+        entries.sort(Comparator.comparingLong(Entry::expiresAt));
+        int excess = byId.size() - maxEntries;
+        for (Entry entry : entries) {
+            if (excess <= 0 && entry.expiresAt() > now) {
+                break;
+            }
+            byId.remove(entry.user().id(), entry);
+            byEmail.remove(entry.user().email(), entry);
+            excess--;
+        }
+    }
+}